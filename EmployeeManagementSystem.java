@@ -1,4 +1,14 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 class Employee {
     int id;
@@ -16,8 +26,886 @@ class Employee {
     }
 }
 
+// Interns repeated strings (departments) as reference-counted int codes; a code whose last user is gone
+// is released and reused, so renamed or removed values do not accumulate
+class StringDictionary {
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    private int[] refs = new int[16];
+    private final ArrayDeque<Integer> free = new ArrayDeque<>();
+
+    // Code for the value, taking one reference on it
+    int acquire(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = free.isEmpty() ? values.size() : free.pop();
+            codes.put(value, code);
+            if (code == values.size()) {
+                values.add(value);
+            } else {
+                values.set(code, value);
+            }
+        }
+        retain(code);
+        return code;
+    }
+
+    void retain(int code) {
+        if (code >= refs.length) {
+            refs = Arrays.copyOf(refs, Math.max(code + 1, refs.length * 2));
+        }
+        refs[code]++;
+    }
+
+    void release(int code) {
+        if (--refs[code] == 0) {
+            codes.remove(values.get(code));
+            values.set(code, null);
+            free.push(code);
+        }
+    }
+
+    String decode(int code) {
+        return values.get(code);
+    }
+
+    Integer find(String value) {
+        return codes.get(value);
+    }
+
+    // Size of the code space, released codes included
+    int size() {
+        return values.size();
+    }
+
+    // Snapshot encoding: count, then (length, UTF-8 bytes) per code in order; -1 marks a released code
+    byte[][] encoded() {
+        byte[][] bytes = new byte[values.size()][];
+        for (int i = 0; i < bytes.length; i++) {
+            String value = values.get(i);
+            bytes[i] = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+
+    static long serializedSize(byte[][] encoded) {
+        long size = 4;
+        for (byte[] b : encoded) size += 4 + (b == null ? 0 : b.length);
+        return size;
+    }
+
+    static void write(ByteBuffer out, byte[][] encoded) {
+        out.putInt(encoded.length);
+        for (byte[] b : encoded) {
+            if (b == null) {
+                out.putInt(-1);
+            } else {
+                out.putInt(b.length);
+                out.put(b);
+            }
+        }
+    }
+
+    // Restores the codes; references are taken again by the rows that use them
+    void read(ByteBuffer in) {
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            int length = in.getInt();
+            if (length < 0) {
+                values.add(null);
+                free.push(i);
+                continue;
+            }
+            byte[] b = new byte[length];
+            in.get(b);
+            String value = new String(b, StandardCharsets.UTF_8);
+            codes.put(value, values.size());
+            values.add(value);
+        }
+    }
+
+    // Codes no row referenced after a load become free
+    void releaseUnused() {
+        for (int i = 0; i < values.size(); i++) {
+            if (values.get(i) != null && (i >= refs.length || refs[i] == 0)) {
+                codes.remove(values.get(i));
+                values.set(i, null);
+                free.push(i);
+            }
+        }
+    }
+}
+
+// Compressed int set in the style of Roaring bitmaps: ids are split by their high 16 bits into containers
+// that are either a sorted short array (sparse, <= 4096 values) or a 65536-bit bitmap (dense)
+class CompressedBitmap {
+    private static final int ARRAY_MAX = 4096;
+
+    private static final class Container {
+        short[] array = new short[4]; // used while bits == null
+        long[] bits;
+        int cardinality;
+
+        boolean contains(int low) {
+            return bits != null ? (bits[low >>> 6] & (1L << low)) != 0 : find(low) >= 0;
+        }
+
+        int find(int low) {
+            int lo = 0, hi = cardinality - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1, v = array[mid] & 0xFFFF;
+                if (v < low) lo = mid + 1; else if (v > low) hi = mid - 1; else return mid;
+            }
+            return -(lo + 1);
+        }
+
+        void add(int low) {
+            if (bits != null) {
+                long before = bits[low >>> 6];
+                bits[low >>> 6] |= 1L << low;
+                if (before != bits[low >>> 6]) cardinality++;
+                return;
+            }
+            int pos = find(low);
+            if (pos >= 0) return;
+            pos = -pos - 1;
+            if (cardinality == ARRAY_MAX) {
+                toBitmap();
+                add(low);
+                return;
+            }
+            if (cardinality == array.length) array = Arrays.copyOf(array, Math.min(ARRAY_MAX, cardinality * 2));
+            System.arraycopy(array, pos, array, pos + 1, cardinality - pos);
+            array[pos] = (short) low;
+            cardinality++;
+        }
+
+        void remove(int low) {
+            if (bits != null) {
+                long before = bits[low >>> 6];
+                bits[low >>> 6] &= ~(1L << low);
+                if (before != bits[low >>> 6] && --cardinality <= ARRAY_MAX) toArray();
+                return;
+            }
+            int pos = find(low);
+            if (pos < 0) return;
+            System.arraycopy(array, pos + 1, array, pos, cardinality - pos - 1);
+            cardinality--;
+        }
+
+        void toBitmap() {
+            bits = new long[1024];
+            for (int i = 0; i < cardinality; i++) {
+                int v = array[i] & 0xFFFF;
+                bits[v >>> 6] |= 1L << v;
+            }
+            array = null;
+        }
+
+        void toArray() {
+            short[] values = new short[Math.max(4, cardinality)];
+            int n = 0;
+            for (int w = 0; w < 1024; w++) {
+                for (long word = bits[w]; word != 0; word &= word - 1) {
+                    values[n++] = (short) (w * 64 + Long.numberOfTrailingZeros(word));
+                }
+            }
+            array = values;
+            bits = null;
+        }
+
+        long[] asBits() {
+            if (bits != null) return bits.clone();
+            long[] b = new long[1024];
+            for (int i = 0; i < cardinality; i++) {
+                int v = array[i] & 0xFFFF;
+                b[v >>> 6] |= 1L << v;
+            }
+            return b;
+        }
+
+        // Builds the smallest container for a word-level result; null when empty
+        static Container of(long[] words) {
+            Container c = new Container();
+            c.bits = words;
+            for (long w : words) c.cardinality += Long.bitCount(w);
+            if (c.cardinality == 0) return null;
+            if (c.cardinality <= ARRAY_MAX) c.toArray();
+            return c;
+        }
+    }
+
+    private final TreeMap<Integer, Container> containers = new TreeMap<>();
+
+    void add(int id) {
+        containers.computeIfAbsent(id >>> 16, k -> new Container()).add(id & 0xFFFF);
+    }
+
+    void remove(int id) {
+        Container c = containers.get(id >>> 16);
+        if (c == null) return;
+        c.remove(id & 0xFFFF);
+        if (c.cardinality == 0) containers.remove(id >>> 16);
+    }
+
+    boolean contains(int id) {
+        Container c = containers.get(id >>> 16);
+        return c != null && c.contains(id & 0xFFFF);
+    }
+
+    long cardinality() {
+        long n = 0;
+        for (Container c : containers.values()) n += c.cardinality;
+        return n;
+    }
+
+    CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        for (Map.Entry<Integer, Container> e : containers.entrySet()) {
+            Container o = other.containers.get(e.getKey());
+            if (o == null) continue;
+            long[] a = e.getValue().asBits(), b = o.asBits();
+            for (int i = 0; i < 1024; i++) a[i] &= b[i];
+            put(result, e.getKey(), a);
+        }
+        return result;
+    }
+
+    CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        Set<Integer> keys = new TreeSet<>(containers.keySet());
+        keys.addAll(other.containers.keySet());
+        for (int key : keys) {
+            Container x = containers.get(key), y = other.containers.get(key);
+            long[] a = x != null ? x.asBits() : new long[1024];
+            if (y != null) {
+                long[] b = y.asBits();
+                for (int i = 0; i < 1024; i++) a[i] |= b[i];
+            }
+            put(result, key, a);
+        }
+        return result;
+    }
+
+    CompressedBitmap andNot(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        for (Map.Entry<Integer, Container> e : containers.entrySet()) {
+            long[] a = e.getValue().asBits();
+            Container o = other.containers.get(e.getKey());
+            if (o != null) {
+                long[] b = o.asBits();
+                for (int i = 0; i < 1024; i++) a[i] &= ~b[i];
+            }
+            put(result, e.getKey(), a);
+        }
+        return result;
+    }
+
+    void forEach(IntConsumer action) {
+        for (Map.Entry<Integer, Container> e : containers.entrySet()) {
+            int high = e.getKey() << 16;
+            Container c = e.getValue();
+            if (c.bits == null) {
+                for (int i = 0; i < c.cardinality; i++) action.accept(high | (c.array[i] & 0xFFFF));
+            } else {
+                for (int w = 0; w < 1024; w++) {
+                    for (long word = c.bits[w]; word != 0; word &= word - 1) {
+                        action.accept(high | (w * 64 + Long.numberOfTrailingZeros(word)));
+                    }
+                }
+            }
+        }
+    }
+
+    // Snapshot encoding: container count, then (key, kind, cardinality, shorts or 1024 longs) per container
+    long serializedSize() {
+        long size = 4;
+        for (Container c : containers.values()) size += 9 + (c.bits != null ? 8 * 1024 : 2L * c.cardinality);
+        return size;
+    }
+
+    void write(ByteBuffer out) {
+        out.putInt(containers.size());
+        for (Map.Entry<Integer, Container> e : containers.entrySet()) {
+            Container c = e.getValue();
+            out.putInt(e.getKey()).put((byte) (c.bits != null ? 1 : 0)).putInt(c.cardinality);
+            if (c.bits != null) {
+                out.asLongBuffer().put(c.bits);
+                out.position(out.position() + 8 * 1024);
+            } else {
+                for (int i = 0; i < c.cardinality; i++) out.putShort(c.array[i]);
+            }
+        }
+    }
+
+    static CompressedBitmap read(ByteBuffer in) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            int key = in.getInt();
+            boolean dense = in.get() == 1;
+            Container c = new Container();
+            c.cardinality = in.getInt();
+            if (dense) {
+                c.bits = new long[1024];
+                c.array = null;
+                in.asLongBuffer().get(c.bits);
+                in.position(in.position() + 8 * 1024);
+            } else {
+                c.array = new short[Math.max(4, c.cardinality)];
+                for (int j = 0; j < c.cardinality; j++) c.array[j] = in.getShort();
+            }
+            bitmap.containers.put(key, c);
+        }
+        return bitmap;
+    }
+
+    private static void put(CompressedBitmap target, int key, long[] words) {
+        Container c = Container.of(words);
+        if (c != null) target.containers.put(key, c);
+    }
+}
+
+// Attendance history: one compressed bitmap of present employee ids per recorded day, the bitmap of
+// employees on the payroll that day, plus the bitmap of current employees. Workforce-wide questions are
+// answered with bitmap operations, not per-employee loops. Days nobody was marked (weekends, holidays,
+// days before the log existed) are not working days and never count as absences.
+class AttendanceLog {
+    private final TreeMap<Long, CompressedBitmap> days = new TreeMap<>();
+    private final TreeMap<Long, CompressedBitmap> employed = new TreeMap<>();
+    private CompressedBitmap workforce = new CompressedBitmap();
+
+    void hire(int id) {
+        workforce.add(id);
+    }
+
+    void leave(int id) {
+        workforce.remove(id);
+    }
+
+    // The first mark of a day captures who was employed then; anyone hired later that day counts once marked
+    void markPresent(int id, LocalDate date) {
+        long day = date.toEpochDay();
+        employed.computeIfAbsent(day, d -> workforce.or(new CompressedBitmap())).add(id);
+        days.computeIfAbsent(day, d -> new CompressedBitmap()).add(id);
+    }
+
+    boolean isPresent(int id, LocalDate date) {
+        CompressedBitmap day = days.get(date.toEpochDay());
+        return day != null && day.contains(id);
+    }
+
+    CompressedBitmap presentOn(LocalDate date) {
+        CompressedBitmap day = days.get(date.toEpochDay());
+        return day == null ? new CompressedBitmap() : day.and(workforce);
+    }
+
+    // Share of (employee, working day) pairs in [from, to] that were marked present
+    double attendanceRate(LocalDate from, LocalDate to) {
+        long possible = 0, present = 0;
+        for (Map.Entry<Long, CompressedBitmap> e : days.subMap(from.toEpochDay(), true, to.toEpochDay(), true).entrySet()) {
+            possible += employed.get(e.getKey()).cardinality();
+            present += e.getValue().cardinality();
+        }
+        return possible == 0 ? 0.0 : (double) present / possible;
+    }
+
+    long serializedSize() {
+        long size = workforce.serializedSize() + 4;
+        for (Map.Entry<Long, CompressedBitmap> e : days.entrySet()) {
+            size += 8 + employed.get(e.getKey()).serializedSize() + e.getValue().serializedSize();
+        }
+        return size;
+    }
+
+    void write(ByteBuffer out) {
+        workforce.write(out);
+        out.putInt(days.size());
+        for (Map.Entry<Long, CompressedBitmap> e : days.entrySet()) {
+            out.putLong(e.getKey());
+            employed.get(e.getKey()).write(out);
+            e.getValue().write(out);
+        }
+    }
+
+    void read(ByteBuffer in) {
+        workforce = CompressedBitmap.read(in);
+        days.clear();
+        employed.clear();
+        for (int i = in.getInt(); i > 0; i--) {
+            long day = in.getLong();
+            employed.put(day, CompressedBitmap.read(in));
+            days.put(day, CompressedBitmap.read(in));
+        }
+    }
+
+    // Current employees absent on at least `streak` consecutive working days within [from, to]
+    CompressedBitmap absentStreaks(LocalDate from, LocalDate to, int streak) {
+        List<Long> working = new ArrayList<>(days.subMap(from.toEpochDay(), true, to.toEpochDay(), true).keySet());
+        CompressedBitmap result = new CompressedBitmap();
+        for (int start = 0; start + streak <= working.size(); start++) {
+            CompressedBitmap absent = workforce;
+            for (int i = start; i < start + streak; i++) {
+                long d = working.get(i);
+                absent = absent.and(employed.get(d)).andNot(days.get(d));
+            }
+            result = result.or(absent);
+        }
+        return result;
+    }
+}
+
+// Salary statistics for one department, built from its salaries in ascending order
+class DepartmentPayroll {
+    final String department;
+    final int headcount;
+    final double total;
+    final double average;
+    private final double[] sorted;
+
+    DepartmentPayroll(String department, double[] sorted) {
+        this.department = department;
+        this.sorted = sorted;
+        this.headcount = sorted.length;
+        double sum = 0;
+        for (double salary : sorted) sum += salary;
+        this.total = sum;
+        this.average = sorted.length == 0 ? 0 : sum / sorted.length;
+    }
+
+    // Nearest-rank percentile, p in (0, 100]
+    double percentile(double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p / 100 * sorted.length);
+        return sorted[Math.min(sorted.length, Math.max(1, rank)) - 1];
+    }
+}
+
+// Employee table keyed by primitive int ids: open addressing with linear probing, one array per column.
+// Departments repeat, so they are stored as dictionary codes; names are mostly unique and are kept as plain
+// strings in their own column. No per-employee objects or boxed keys.
+class EmployeeStore {
+    interface Visitor {
+        void visit(int id, String name, String department, double salary);
+    }
+
+    private final StringDictionary departments = new StringDictionary();
+    private int[] ids;
+    private String[] names;
+    private int[] departmentCodes;
+    private double[] salaries;
+    private boolean[] used;
+    private int size;
+    // Department code -> ids of its employees
+    private final List<CompressedBitmap> members = new ArrayList<>();
+    private Map<String, DepartmentPayroll> payroll;
+
+    EmployeeStore() {
+        allocate(1024);
+    }
+
+    private void allocate(int capacity) {
+        ids = new int[capacity];
+        names = new String[capacity];
+        departmentCodes = new int[capacity];
+        salaries = new double[capacity];
+        used = new boolean[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int id) {
+        return used[slot(id)];
+    }
+
+    // Adds or replaces an employee
+    void put(int id, String name, String department, double salary) {
+        if ((size + 1) * 4 > ids.length * 3) {
+            resize(ids.length * 2);
+        }
+        int slot = slot(id);
+        int departmentCode = departments.acquire(department);
+        if (!used[slot]) {
+            used[slot] = true;
+            ids[slot] = id;
+            size++;
+        } else {
+            if (departmentCodes[slot] != departmentCode) {
+                members.get(departmentCodes[slot]).remove(id);
+            }
+            departments.release(departmentCodes[slot]);
+        }
+        names[slot] = name;
+        departmentCodes[slot] = departmentCode;
+        salaries[slot] = salary;
+        index(id, departmentCode);
+        payroll = null;
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    boolean remove(int id) {
+        int slot = slot(id);
+        if (!used[slot]) {
+            return false;
+        }
+        members.get(departmentCodes[slot]).remove(id);
+        departments.release(departmentCodes[slot]);
+        payroll = null;
+        int mask = ids.length - 1;
+        int hole = slot;
+        for (int i = (hole + 1) & mask; used[i]; i = (i + 1) & mask) {
+            int home = home(ids[i]);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                move(i, hole);
+                hole = i;
+            }
+        }
+        used[hole] = false;
+        names[hole] = null;
+        size--;
+        return true;
+    }
+
+    Employee get(int id) {
+        int slot = slot(id);
+        if (!used[slot]) {
+            return null;
+        }
+        return new Employee(id, names[slot], departments.decode(departmentCodes[slot]), salaries[slot]);
+    }
+
+    void forEach(Visitor visitor) {
+        for (int i = 0; i < ids.length; i++) {
+            if (used[i]) {
+                visitor.visit(ids[i], names[i], departments.decode(departmentCodes[i]), salaries[i]);
+            }
+        }
+    }
+
+    // Ids of everyone in the department, without scanning the table
+    CompressedBitmap inDepartment(String department) {
+        Integer code = departments.find(department);
+        return code == null ? new CompressedBitmap() : members.get(code).or(new CompressedBitmap());
+    }
+
+    // Per-department salary statistics, computed in parallel and reused until the next change
+    Map<String, DepartmentPayroll> payroll() {
+        if (payroll == null) {
+            Map<String, DepartmentPayroll> result = new TreeMap<>();
+            IntStream.range(0, members.size()).parallel()
+                .filter(code -> members.get(code).cardinality() > 0)
+                .mapToObj(this::departmentPayroll)
+                .collect(Collectors.toList())
+                .forEach(p -> result.put(p.department, p));
+            payroll = Collections.unmodifiableMap(result);
+        }
+        return payroll;
+    }
+
+    private DepartmentPayroll departmentPayroll(int code) {
+        CompressedBitmap ids = members.get(code);
+        double[] sorted = new double[(int) ids.cardinality()];
+        int[] n = {0};
+        ids.forEach(id -> sorted[n[0]++] = salaries[slot(id)]);
+        Arrays.sort(sorted);
+        return new DepartmentPayroll(departments.decode(code), sorted);
+    }
+
+    private void index(int id, int departmentCode) {
+        while (members.size() <= departmentCode) {
+            members.add(new CompressedBitmap());
+        }
+        members.get(departmentCode).add(id);
+    }
+
+    // Snapshot encoding: the department dictionary, then (id, name length, UTF-8 name, department code, salary)
+    // per employee
+    void write(FileChannel channel, long position) throws IOException {
+        byte[][] departmentBytes = departments.encoded();
+        byte[][] nameBytes = new byte[size][];
+        long length = StringDictionary.serializedSize(departmentBytes) + 4 + 20L * size;
+        for (int i = 0, n = 0; i < ids.length; i++) {
+            if (used[i]) {
+                nameBytes[n] = names[i].getBytes(StandardCharsets.UTF_8);
+                length += nameBytes[n++].length;
+            }
+        }
+        MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, position, length);
+        StringDictionary.write(out, departmentBytes);
+        out.putInt(size);
+        for (int i = 0, n = 0; i < ids.length; i++) {
+            if (used[i]) {
+                byte[] name = nameBytes[n++];
+                out.putInt(ids[i]).putInt(name.length).put(name).putInt(departmentCodes[i]).putDouble(salaries[i]);
+            }
+        }
+        out.force();
+    }
+
+    void read(ByteBuffer in) {
+        departments.read(in);
+        int count = in.getInt();
+        int capacity = 1024;
+        while ((count + 1) * 4L > capacity * 3L) capacity *= 2;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < count; i++) {
+            int id = in.getInt(), slot = slot(id);
+            used[slot] = true;
+            ids[slot] = id;
+            byte[] name = new byte[in.getInt()];
+            in.get(name);
+            names[slot] = new String(name, StandardCharsets.UTF_8);
+            departmentCodes[slot] = in.getInt();
+            departments.retain(departmentCodes[slot]);
+            salaries[slot] = in.getDouble();
+            size++;
+            index(id, departmentCodes[slot]);
+        }
+        departments.releaseUnused();
+        payroll = null;
+    }
+
+    private void move(int from, int to) {
+        ids[to] = ids[from];
+        names[to] = names[from];
+        departmentCodes[to] = departmentCodes[from];
+        salaries[to] = salaries[from];
+        used[to] = true;
+    }
+
+    private int home(int id) {
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (ids.length - 1);
+    }
+
+    private int slot(int id) {
+        int mask = ids.length - 1;
+        int i = home(id);
+        while (used[i] && ids[i] != id) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void resize(int capacity) {
+        int[] oldIds = ids, oldDepartments = departmentCodes;
+        String[] oldNames = names;
+        double[] oldSalaries = salaries;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldUsed[i]) {
+                int slot = slot(oldIds[i]);
+                used[slot] = true;
+                ids[slot] = oldIds[i];
+                names[slot] = oldNames[i];
+                departmentCodes[slot] = oldDepartments[i];
+                salaries[slot] = oldSalaries[i];
+            }
+        }
+    }
+}
+
+// Durable state: a memory-mapped snapshot plus an append-only journal of changes made since it was taken.
+// Each journal carries the generation of the snapshot it follows, so a journal already folded into
+// the snapshot (crash between the two renames) is skipped rather than replayed twice.
+class EmployeePersistence implements AutoCloseable {
+    private static final int SNAPSHOT_MAGIC = 0x454D5053; // "EMPS"
+    private static final int JOURNAL_MAGIC = 0x454D504A;  // "EMPJ"
+    private static final int VERSION = 1;
+    private static final int JOURNAL_HEADER = 12;
+    private static final byte ADD = 1, REMOVE = 2, PRESENT = 3;
+
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final int snapshotEvery;
+    private final EmployeeStore store;
+    private final AttendanceLog attendance;
+    private FileChannel journal;
+    private long generation;
+    private int pending;
+
+    EmployeePersistence(Path directory, EmployeeStore store, AttendanceLog attendance, int snapshotEvery) {
+        this.snapshotPath = directory.resolve("employees.snapshot");
+        this.journalPath = directory.resolve("employees.journal");
+        this.store = store;
+        this.attendance = attendance;
+        this.snapshotEvery = snapshotEvery;
+    }
+
+    // Restores the latest snapshot, replays the journal tail on top of it and opens the journal for appends
+    void load() {
+        try {
+            long snapshotGeneration = 0;
+            if (Files.exists(snapshotPath)) {
+                snapshotGeneration = readSnapshot();
+            }
+            generation = snapshotGeneration + 1;
+            if (Files.exists(journalPath)) {
+                try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.READ)) {
+                    ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER);
+                    channel.read(header, 0);
+                    header.flip();
+                    if (header.remaining() == JOURNAL_HEADER && header.getInt() == JOURNAL_MAGIC && header.getLong() == generation) {
+                        journal = FileChannel.open(journalPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                    }
+                }
+            }
+            if (journal == null) {
+                startJournal();
+            } else {
+                long end = replay();
+                journal.truncate(end);
+                journal.position(end);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error loading employee data", e);
+        }
+    }
+
+    void logAdd(int id, String name, String department, double salary) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        byte[] departmentBytes = department.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(1 + 4 + 4 + nameBytes.length + 4 + departmentBytes.length + 8);
+        record.put(ADD).putInt(id).putInt(nameBytes.length).put(nameBytes).putInt(departmentBytes.length).put(departmentBytes).putDouble(salary);
+        append(record);
+    }
+
+    void logRemove(int id) {
+        append(ByteBuffer.allocate(5).put(REMOVE).putInt(id));
+    }
+
+    void logPresent(int id, LocalDate date) {
+        append(ByteBuffer.allocate(13).put(PRESENT).putInt(id).putLong(date.toEpochDay()));
+    }
+
+    // Writes the full state to a new snapshot and starts an empty journal after it
+    void snapshot() {
+        try {
+            Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, 16);
+                header.putInt(SNAPSHOT_MAGIC).putInt(VERSION).putLong(generation);
+                header.force();
+                store.write(channel, 16);
+                long position = channel.size();
+                MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, position, attendance.serializedSize());
+                attendance.write(out);
+                out.force();
+            }
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            generation++;
+            startJournal();
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing employee snapshot", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (journal != null) {
+                journal.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error closing employee journal", e);
+        }
+    }
+
+    private long readSnapshot() throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != SNAPSHOT_MAGIC || in.getInt() != VERSION) {
+                throw new IOException("Unrecognised snapshot " + snapshotPath);
+            }
+            long snapshotGeneration = in.getLong();
+            store.read(in);
+            attendance.read(in);
+            return snapshotGeneration;
+        }
+    }
+
+    // Applies every complete record; returns the offset just past the last one so a torn tail can be cut off
+    private long replay() throws IOException {
+        MappedByteBuffer in = journal.map(FileChannel.MapMode.READ_ONLY, 0, journal.size());
+        in.position(JOURNAL_HEADER);
+        int end = JOURNAL_HEADER;
+        try {
+            while (in.hasRemaining()) {
+                byte op = in.get();
+                int id = in.getInt();
+                if (op == ADD) {
+                    String name = readString(in), department = readString(in);
+                    double salary = in.getDouble();
+                    store.put(id, name, department, salary);
+                    attendance.hire(id);
+                } else if (op == REMOVE) {
+                    if (store.remove(id)) {
+                        attendance.leave(id);
+                    }
+                } else if (op == PRESENT) {
+                    attendance.markPresent(id, LocalDate.ofEpochDay(in.getLong()));
+                } else {
+                    break;
+                }
+                end = in.position();
+                pending++;
+            }
+        } catch (RuntimeException torn) {
+            // Partial record from an interrupted append; everything before it is intact
+        }
+        return end;
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void startJournal() throws IOException {
+        close();
+        Path tmp = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(JOURNAL_HEADER).putInt(JOURNAL_MAGIC).putLong(generation).flip());
+            channel.force(true);
+        }
+        Files.move(tmp, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        journal = FileChannel.open(journalPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        journal.position(journal.size());
+        pending = 0;
+    }
+
+    private void append(ByteBuffer record) {
+        try {
+            record.flip();
+            while (record.hasRemaining()) {
+                journal.write(record);
+            }
+            journal.force(false);
+        } catch (IOException e) {
+            throw new RuntimeException("Error appending to employee journal", e);
+        }
+        if (++pending >= snapshotEvery) {
+            snapshot();
+        }
+    }
+}
+
 public class EmployeeManagementSystem {
-    private static Map<Integer, Employee> employees = new HashMap<>();
+    private static EmployeeStore employees = new EmployeeStore();
+    private static AttendanceLog attendance = new AttendanceLog();
+    private static EmployeePersistence persistence = new EmployeePersistence(Paths.get("."), employees, attendance, 100_000);
     private static Scanner scanner = new Scanner(System.in);
 
     // Add Employee
@@ -35,7 +923,9 @@ public class EmployeeManagementSystem {
         System.out.print("Enter Salary: ");
         double salary = scanner.nextDouble();
 
-        employees.put(id, new Employee(id, name, department, salary));
+        employees.put(id, name, department, salary);
+        attendance.hire(id);
+        persistence.logAdd(id, name, department, salary);
         System.out.println("Employee added successfully!\n");
     }
 
@@ -45,9 +935,9 @@ public class EmployeeManagementSystem {
             System.out.println("No employees to display.\n");
             return;
         }
-        for (Employee e : employees.values()) {
-            System.out.println("ID: " + e.id + ", Name: " + e.name + ", Department: " + e.department + ", Salary: " + e.salary + ", Attendance: " + (e.attendance ? "Present" : "Absent"));
-        }
+        LocalDate today = LocalDate.now();
+        employees.forEach((id, name, department, salary) ->
+            System.out.println("ID: " + id + ", Name: " + name + ", Department: " + department + ", Salary: " + salary + ", Attendance: " + (attendance.isPresent(id, today) ? "Present" : "Absent")));
         System.out.println();
     }
 
@@ -55,8 +945,10 @@ public class EmployeeManagementSystem {
     public static void markAttendance() {
         System.out.print("Enter Employee ID to mark attendance: ");
         int id = scanner.nextInt();
-        if (employees.containsKey(id)) {
-            employees.get(id).attendance = true;
+        if (employees.contains(id)) {
+            LocalDate today = LocalDate.now();
+            attendance.markPresent(id, today);
+            persistence.logPresent(id, today);
             System.out.println("Attendance marked successfully!\n");
         } else {
             System.out.println("Employee not found.\n");
@@ -67,22 +959,48 @@ public class EmployeeManagementSystem {
     public static void removeEmployee() {
         System.out.print("Enter Employee ID to remove: ");
         int id = scanner.nextInt();
-        if (employees.containsKey(id)) {
-            employees.remove(id);
+        if (employees.remove(id)) {
+            attendance.leave(id);
+            persistence.logRemove(id);
             System.out.println("Employee removed successfully!\n");
         } else {
             System.out.println("Employee not found.\n");
         }
     }
 
+    // Attendance Report
+    public static void attendanceReport() {
+        LocalDate today = LocalDate.now(), monthAgo = today.minusDays(29);
+        System.out.println("Present today: " + attendance.presentOn(today).cardinality());
+        System.out.printf("Attendance rate (last 30 days): %.1f%%%n", attendance.attendanceRate(monthAgo, today) * 100);
+        StringBuilder absent = new StringBuilder();
+        attendance.absentStreaks(monthAgo, today, 3).forEach(id -> absent.append(absent.length() == 0 ? "" : ", ").append(id));
+        System.out.println("Absent 3+ days in a row: " + (absent.length() == 0 ? "none" : absent) + "\n");
+    }
+
+    // Payroll Report
+    public static void payrollReport() {
+        if (employees.isEmpty()) {
+            System.out.println("No employees to report.\n");
+            return;
+        }
+        employees.payroll().values().forEach(p ->
+            System.out.printf("%s: %d employees, total %.2f, average %.2f, median %.2f, 90th percentile %.2f%n",
+                p.department, p.headcount, p.total, p.average, p.percentile(50), p.percentile(90)));
+        System.out.println();
+    }
+
     public static void main(String[] args) {
+        persistence.load();
         while (true) {
             System.out.println("--- Employee Management System ---");
             System.out.println("1. Add Employee");
             System.out.println("2. Display Employees");
             System.out.println("3. Mark Attendance");
             System.out.println("4. Remove Employee");
-            System.out.println("5. Exit");
+            System.out.println("5. Attendance Report");
+            System.out.println("6. Payroll Report");
+            System.out.println("7. Exit");
             System.out.print("Choose an option: ");
 
             int choice = scanner.nextInt();
@@ -101,6 +1019,14 @@ public class EmployeeManagementSystem {
                     removeEmployee();
                     break;
                 case 5:
+                    attendanceReport();
+                    break;
+                case 6:
+                    payrollReport();
+                    break;
+                case 7:
+                    persistence.snapshot();
+                    persistence.close();
                     System.out.println("Exiting... Goodbye!");
                     System.exit(0);
                 default:
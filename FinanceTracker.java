@@ -1,5 +1,24 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.sql.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 class Database {
     private static final String URL = "jdbc:sqlite:finance.db";
@@ -29,6 +48,12 @@ class Database {
                 );
             """;
             stmt.executeUpdate(createTables);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_transactions_date ON transactions(date)");
+            stmt.execute("CREATE TABLE IF NOT EXISTS monthly_totals (year_month INTEGER, category TEXT, total REAL, PRIMARY KEY (year_month, category))");
+            // One-time backfill for histories recorded before the rollup existed; a NULL category rolls up as ''
+            stmt.execute("INSERT INTO monthly_totals (year_month, category, total) " +
+                    "SELECT CAST(strftime('%Y%m', date) AS INTEGER), COALESCE(category, ''), SUM(amount) FROM transactions " +
+                    "WHERE strftime('%Y%m', date) IS NOT NULL AND NOT EXISTS (SELECT 1 FROM monthly_totals) GROUP BY 1, 2");
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -48,14 +73,50 @@ class Transaction {
 
     public void save() {
         String sql = "INSERT INTO transactions (type, category, amount, date) VALUES (?, ?, ?, ?)";
-        try (Connection conn = Database.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, type);
-            pstmt.setString(2, category);
-            pstmt.setDouble(3, amount);
-            pstmt.setString(4, date);
-            pstmt.executeUpdate();
+        // The month is derived by SQLite exactly as the backfill does, so any date it understands is rolled up
+        String rollupSql = "INSERT INTO monthly_totals (year_month, category, total) " +
+                "SELECT CAST(strftime('%Y%m', ?) AS INTEGER), ?, ? WHERE strftime('%Y%m', ?) IS NOT NULL " +
+                "ON CONFLICT(year_month, category) DO UPDATE SET total = total + excluded.total";
+        String rollupCategory = category == null ? "" : category;
+        BudgetGuard.lock.readLock().lock();
+        try (Connection conn = Database.connect()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql); PreparedStatement rollup = conn.prepareStatement(rollupSql)) {
+                pstmt.setString(1, type);
+                pstmt.setString(2, category);
+                pstmt.setDouble(3, amount);
+                pstmt.setString(4, date);
+                pstmt.executeUpdate();
+                rollup.setString(1, date);
+                rollup.setString(2, rollupCategory);
+                rollup.setDouble(3, amount);
+                rollup.setString(4, date);
+                rollup.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            LocalDate day = dayOf(date);
+            if ("Expense".equalsIgnoreCase(type) && day != null) {
+                BudgetGuard.recordExpense(rollupCategory, amount, day);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            BudgetGuard.lock.readLock().unlock();
+        }
+    }
+
+    // Calendar day of a stored date such as "2025-02-05" or "2025-02-05 10:00"; null when there is none
+    static LocalDate dayOf(String date) {
+        if (date == null || date.length() < 10) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date.substring(0, 10));
+        } catch (DateTimeParseException e) {
+            return null;
         }
     }
 }
@@ -63,34 +124,490 @@ class Transaction {
 class Budget {
     public static void setBudget(String category, double limit) {
         String sql = "INSERT INTO budgets (category, limit_amount) VALUES (?, ?) ON CONFLICT(category) DO UPDATE SET limit_amount=?";
+        BudgetGuard.lock.readLock().lock();
         try (Connection conn = Database.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, category);
             pstmt.setDouble(2, limit);
             pstmt.setDouble(3, limit);
             pstmt.executeUpdate();
+            BudgetGuard.setLimit(category, limit);
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            BudgetGuard.lock.readLock().unlock();
         }
     }
 }
 
-class Report {
-    public static void generateMonthlyReport() {
-        String sql = "SELECT category, SUM(amount) as total FROM transactions WHERE strftime('%Y-%m', date) = strftime('%Y-%m', 'now') GROUP BY category";
+// Emitted synchronously by BudgetGuard when an expense leaves a category above its monthly limit
+class BudgetEvent {
+    final String category;
+    final YearMonth month;
+    final long limitCents, spentCents, expenseCents;
+
+    BudgetEvent(String category, YearMonth month, long limitCents, long spentCents, long expenseCents) {
+        this.category = category;
+        this.month = month;
+        this.limitCents = limitCents;
+        this.spentCents = spentCents;
+        this.expenseCents = expenseCents;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Over budget: %s spent %.2f of %.2f in %s (last expense %.2f)",
+                category, spentCents / 100.0, limitCents / 100.0, month, expenseCents / 100.0);
+    }
+}
+
+interface BudgetListener {
+    void onOverBudget(BudgetEvent event);
+}
+
+// In-memory budget enforcement: per-category limit and month-to-date expense counters in cents.
+// Expenses are checked without touching the database; reconcile() re-reads both tables to correct drift.
+class BudgetGuard {
+    private static final class Counter {
+        final AtomicLong limitCents = new AtomicLong(-1); // -1 = no budget set
+        final AtomicLong spentCents = new AtomicLong();
+    }
+
+    private static final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final List<BudgetListener> listeners = new CopyOnWriteArrayList<>();
+    // Writers hold it shared from commit to counter update; reconcile holds it exclusively
+    static final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private static volatile YearMonth month = YearMonth.now();
+    private static ScheduledExecutorService reconciler;
+
+    public static void addListener(BudgetListener listener) {
+        listeners.add(listener);
+    }
+
+    static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    static void setLimit(String category, double limit) {
+        counters.computeIfAbsent(category, c -> new Counter()).limitCents.set(toCents(limit));
+    }
+
+    // Called by Transaction.save after commit; only expenses dated in the current month count
+    static void recordExpense(String category, double amount, LocalDate date) {
+        rollOver();
+        YearMonth current = month;
+        if (!YearMonth.from(date).equals(current)) {
+            return;
+        }
+        long cents = toCents(amount);
+        Counter counter = counters.computeIfAbsent(category, c -> new Counter());
+        long spent = counter.spentCents.addAndGet(cents);
+        long limit = counter.limitCents.get();
+        if (limit >= 0 && spent > limit) {
+            BudgetEvent event = new BudgetEvent(category, current, limit, spent, cents);
+            // The expense is already committed, so a failing listener must not surface as a failed save
+            for (BudgetListener listener : listeners) {
+                try {
+                    listener.onOverBudget(event);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    public static long spentCents(String category) {
+        rollOver();
+        Counter counter = counters.get(category);
+        return counter == null ? 0 : counter.spentCents.get();
+    }
+
+    // Resets month-to-date spend when the calendar month changes
+    private static void rollOver() {
+        YearMonth now = YearMonth.now();
+        if (!now.equals(month)) {
+            synchronized (BudgetGuard.class) {
+                if (!now.equals(month)) {
+                    counters.values().forEach(c -> c.spentCents.set(0));
+                    month = now;
+                }
+            }
+        }
+    }
+
+    // Replaces limits and month-to-date spend with what the budgets and transactions tables say
+    public static void reconcile() {
+        lock.writeLock().lock();
+        try {
+            YearMonth now = YearMonth.now();
+            Map<String, Long> limits = new HashMap<>();
+            Map<String, Long> spent = new HashMap<>();
+            // Same expense rule as the writers ("Expense".equalsIgnoreCase(type)) and the same '' for a NULL category
+            String spentSql = "SELECT COALESCE(category, ''), SUM(amount) FROM transactions WHERE lower(type) = 'expense' " +
+                    "AND date >= ? AND date < ? GROUP BY 1";
+            try (Connection conn = Database.connect()) {
+                try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT COALESCE(category, ''), limit_amount FROM budgets")) {
+                    while (rs.next()) {
+                        limits.put(rs.getString(1), toCents(rs.getDouble(2)));
+                    }
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(spentSql)) {
+                    pstmt.setString(1, now.atDay(1).toString());
+                    pstmt.setString(2, now.plusMonths(1).atDay(1).toString());
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            spent.put(rs.getString(1), toCents(rs.getDouble(2)));
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+                return;
+            }
+            synchronized (BudgetGuard.class) {
+                month = now;
+                counters.forEach((category, c) -> {
+                    c.limitCents.set(limits.getOrDefault(category, -1L));
+                    c.spentCents.set(spent.getOrDefault(category, 0L));
+                });
+                limits.forEach((category, limit) -> counters.computeIfAbsent(category, k -> new Counter()).limitCents.set(limit));
+                spent.forEach((category, cents) -> counters.computeIfAbsent(category, k -> new Counter()).spentCents.set(cents));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public static synchronized void startReconciliation(long periodMinutes) {
+        if (reconciler != null) {
+            return;
+        }
+        reconcile();
+        reconciler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "budget-reconciler");
+            t.setDaemon(true);
+            return t;
+        });
+        reconciler.scheduleAtFixedRate(BudgetGuard::reconcile, periodMinutes, periodMinutes, TimeUnit.MINUTES);
+    }
+}
+
+// One statement line after parsing; amount is positive, type says which way it went
+class StatementEntry {
+    final String type, category, date;
+    final double amount;
+
+    StatementEntry(String type, String category, double amount, String date) {
+        this.type = type;
+        this.category = category;
+        this.amount = amount;
+        this.date = date;
+    }
+
+    // Identity used for de-duplication: same day, direction, category and amount in cents.
+    // NUL separates the fields so no category text can make two different rows look alike.
+    String key() {
+        return date + '\0' + type + '\0' + category + '\0' + BudgetGuard.toCents(amount);
+    }
+}
+
+// Imports CSV (date,type,category,amount) or OFX statement files. The file is memory-mapped and split
+// with fork/join at record boundaries, so chunks parse in parallel; rows already present in transactions
+// are skipped and the rest are inserted in chunked, batched transactions that also maintain
+// monthly_totals and the budget counters.
+class StatementImporter {
+    private static final int MIN_SPLIT = 1 << 20;
+    private static final int CHUNK_ROWS = 10_000;
+    private static final long WINDOW = 1L << 30;
+    private static final byte[] OFX_RECORD = "<STMTTRN>".getBytes(StandardCharsets.US_ASCII);
+
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    // Returns the number of new transactions inserted
+    public int importFile(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean ofx = name.endsWith(".ofx") || name.endsWith(".qfx");
+        List<StatementEntry> entries = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long offset = 0; offset < size; ) {
+                MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW, size - offset));
+                int end = buf.limit();
+                if (offset + end < size) {
+                    end = lastBoundary(buf, end, ofx);
+                    if (end <= 0) {
+                        throw new IOException("Statement record larger than " + WINDOW + " bytes");
+                    }
+                }
+                entries.addAll(pool.invoke(new ParseTask(buf, 0, end, ofx)));
+                offset += end;
+            }
+        }
+        return insert(withoutDuplicates(entries));
+    }
+
+    private final class ParseTask extends RecursiveTask<List<StatementEntry>> {
+        private static final long serialVersionUID = 1L;
+
+        private final ByteBuffer buf;
+        private final int from, to;
+        private final boolean ofx;
+
+        ParseTask(ByteBuffer buf, int from, int to, boolean ofx) {
+            this.buf = buf;
+            this.from = from;
+            this.to = to;
+            this.ofx = ofx;
+        }
+
+        @Override
+        protected List<StatementEntry> compute() {
+            if (to - from > MIN_SPLIT) {
+                int mid = nextBoundary(buf, from + (to - from) / 2, to, ofx);
+                if (mid > from && mid < to) {
+                    ParseTask left = new ParseTask(buf, from, mid, ofx);
+                    left.fork();
+                    List<StatementEntry> right = new ParseTask(buf, mid, to, ofx).compute();
+                    List<StatementEntry> result = left.join();
+                    result.addAll(right);
+                    return result;
+                }
+            }
+            String text = StandardCharsets.UTF_8.decode(buf.slice(from, to - from)).toString();
+            return ofx ? parseOfx(text) : parseCsv(text);
+        }
+    }
+
+    // First record start at or after pos: the byte after a newline for CSV, a <STMTTRN> tag for OFX
+    private static int nextBoundary(ByteBuffer buf, int pos, int limit, boolean ofx) {
+        for (int i = pos; i < limit; i++) {
+            if (ofx ? matches(buf, i, OFX_RECORD) : i > 0 && buf.get(i - 1) == '\n') {
+                return i;
+            }
+        }
+        return limit;
+    }
+
+    private static int lastBoundary(ByteBuffer buf, int limit, boolean ofx) {
+        for (int i = limit - 1; i > 0; i--) {
+            if (ofx ? matches(buf, i, OFX_RECORD) : buf.get(i - 1) == '\n') {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean matches(ByteBuffer buf, int pos, byte[] token) {
+        if (pos + token.length > buf.limit()) {
+            return false;
+        }
+        for (int i = 0; i < token.length; i++) {
+            if (Character.toUpperCase(buf.get(pos + i)) != token[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<StatementEntry> parseCsv(String text) {
+        List<StatementEntry> entries = new ArrayList<>();
+        for (int start = 0, end; start < text.length(); start = end + 1) {
+            end = text.indexOf('\n', start);
+            if (end < 0) {
+                end = text.length();
+            }
+            String line = text.substring(start, end > start && text.charAt(end - 1) == '\r' ? end - 1 : end);
+            String[] f = line.split(",", -1);
+            if (f.length < 4 || f[0].isBlank() || f[0].trim().equalsIgnoreCase("date")) {
+                continue;
+            }
+            try {
+                String date = f[0].trim();
+                // Cheaper than LocalDate.parse on the hot path; LocalDate.of still rejects impossible dates
+                LocalDate.of(Integer.parseInt(date.substring(0, 4)), Integer.parseInt(date.substring(5, 7)), Integer.parseInt(date.substring(8, 10)));
+                if (date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+                    throw new IllegalArgumentException(date);
+                }
+                double amount = Double.parseDouble(f[3].trim());
+                entries.add(new StatementEntry(f[1].trim(), f[2].trim(), Math.abs(amount), date));
+            } catch (RuntimeException e) {
+                System.out.println("Skipping malformed statement line: " + line);
+            }
+        }
+        return entries;
+    }
+
+    // Reads the TRNAMT, DTPOSTED and NAME elements of each <STMTTRN>; negative amounts are expenses
+    private static List<StatementEntry> parseOfx(String text) {
+        List<StatementEntry> entries = new ArrayList<>();
+        String upper = text.toUpperCase(Locale.ROOT);
+        for (int start = upper.indexOf("<STMTTRN>"); start >= 0; ) {
+            int next = upper.indexOf("<STMTTRN>", start + 1);
+            int end = next < 0 ? text.length() : next;
+            String record = text.substring(start, end), recordUpper = upper.substring(start, end);
+            String amount = ofxValue(record, recordUpper, "TRNAMT"), posted = ofxValue(record, recordUpper, "DTPOSTED");
+            if (amount != null && posted != null && posted.length() >= 8) {
+                try {
+                    double value = Double.parseDouble(amount);
+                    String date = LocalDate.of(Integer.parseInt(posted.substring(0, 4)), Integer.parseInt(posted.substring(4, 6)),
+                            Integer.parseInt(posted.substring(6, 8))).toString();
+                    String name = ofxValue(record, recordUpper, "NAME");
+                    entries.add(new StatementEntry(value < 0 ? "Expense" : "Income", name == null ? "Uncategorized" : name, Math.abs(value), date));
+                } catch (RuntimeException e) {
+                    System.out.println("Skipping malformed OFX transaction at " + posted);
+                }
+            }
+            start = next;
+        }
+        return entries;
+    }
+
+    // OFX SGML leaves elements unclosed, so a value runs until the next tag or line end
+    private static String ofxValue(String record, String recordUpper, String tag) {
+        int at = recordUpper.indexOf("<" + tag + ">");
+        if (at < 0) {
+            return null;
+        }
+        int from = at + tag.length() + 2, to = from;
+        while (to < record.length() && record.charAt(to) != '<' && record.charAt(to) != '\n' && record.charAt(to) != '\r') {
+            to++;
+        }
+        return record.substring(from, to).trim();
+    }
+
+    // Matches by (key, n-th occurrence) so two genuine identical purchases on one day are both kept,
+    // while re-importing an overlapping statement adds nothing
+    private static List<StatementEntry> withoutDuplicates(List<StatementEntry> entries) {
+        Map<String, Integer> existing = new HashMap<>();
+        String sql = "SELECT type, category, amount, date FROM transactions";
         try (Connection conn = Database.connect(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-            System.out.println("Monthly Financial Report:");
             while (rs.next()) {
-                System.out.println(rs.getString("category") + ": " + rs.getDouble("total"));
+                if (rs.getString(1) == null || rs.getString(2) == null || rs.getString(4) == null) {
+                    continue;
+                }
+                StatementEntry e = new StatementEntry(rs.getString(1), rs.getString(2), rs.getDouble(3), rs.getString(4));
+                existing.merge(e.key(), 1, Integer::sum);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading existing transactions", e);
+        }
+        List<StatementEntry> fresh = new ArrayList<>();
+        for (StatementEntry entry : entries) {
+            Integer remaining = existing.computeIfPresent(entry.key(), (k, n) -> n - 1);
+            if (remaining == null || remaining < 0) {
+                fresh.add(entry);
+            }
+        }
+        return fresh;
+    }
+
+    private static int insert(List<StatementEntry> entries) {
+        String sql = "INSERT INTO transactions (type, category, amount, date) VALUES (?, ?, ?, ?)";
+        String rollupSql = "INSERT INTO monthly_totals (year_month, category, total) VALUES (?, ?, ?) " +
+                "ON CONFLICT(year_month, category) DO UPDATE SET total = total + excluded.total";
+        BudgetGuard.lock.readLock().lock();
+        try (Connection conn = Database.connect()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql); PreparedStatement rollup = conn.prepareStatement(rollupSql)) {
+                for (int start = 0; start < entries.size(); start += CHUNK_ROWS) {
+                    List<StatementEntry> chunk = entries.subList(start, Math.min(entries.size(), start + CHUNK_ROWS));
+                    Map<Integer, Map<String, Double>> totals = new HashMap<>();
+                    for (StatementEntry e : chunk) {
+                        pstmt.setString(1, e.type);
+                        pstmt.setString(2, e.category);
+                        pstmt.setDouble(3, e.amount);
+                        pstmt.setString(4, e.date);
+                        pstmt.addBatch();
+                        totals.computeIfAbsent(Report.yearMonth(YearMonth.from(LocalDate.parse(e.date))), m -> new HashMap<>())
+                                .merge(e.category, e.amount, Double::sum);
+                    }
+                    pstmt.executeBatch();
+                    for (Map.Entry<Integer, Map<String, Double>> month : totals.entrySet()) {
+                        for (Map.Entry<String, Double> category : month.getValue().entrySet()) {
+                            rollup.setInt(1, month.getKey());
+                            rollup.setString(2, category.getKey());
+                            rollup.setDouble(3, category.getValue());
+                            rollup.addBatch();
+                        }
+                    }
+                    rollup.executeBatch();
+                    conn.commit();
+                    for (StatementEntry e : chunk) {
+                        if ("Expense".equalsIgnoreCase(e.type)) {
+                            BudgetGuard.recordExpense(e.category, e.amount, LocalDate.parse(e.date));
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            return entries.size();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error importing statement", e);
+        } finally {
+            BudgetGuard.lock.readLock().unlock();
+        }
+    }
+}
+
+// Reports read the monthly_totals rollup maintained by Transaction.save, never the raw transactions
+class Report {
+    public static void generateMonthlyReport() {
+        generateMonthlyReport(YearMonth.now());
+    }
+
+    public static void generateMonthlyReport(YearMonth month) {
+        System.out.println("Monthly Financial Report:");
+        monthlyTotals(month).forEach((category, total) -> System.out.println(category + ": " + total));
+    }
+
+    public static void generateYearOverYearReport(YearMonth month) {
+        Map<String, Double> current = monthlyTotals(month);
+        Map<String, Double> previous = monthlyTotals(month.minusYears(1));
+        Set<String> categories = new TreeSet<>(current.keySet());
+        categories.addAll(previous.keySet());
+        System.out.println("Year-over-Year Report (" + month + " vs " + month.minusYears(1) + "):");
+        for (String category : categories) {
+            double now = current.getOrDefault(category, 0.0), before = previous.getOrDefault(category, 0.0);
+            String change = before == 0 ? "n/a" : String.format("%+.1f%%", (now - before) * 100 / before);
+            System.out.println(category + ": " + now + " (was " + before + ", " + change + ")");
+        }
+    }
+
+    public static Map<String, Double> monthlyTotals(YearMonth month) {
+        Map<String, Double> totals = new TreeMap<>();
+        String sql = "SELECT category, total FROM monthly_totals WHERE year_month = ?";
+        try (Connection conn = Database.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, yearMonth(month));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String category = rs.getString("category");
+                    totals.put(category == null ? "" : category, rs.getDouble("total"));
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        return totals;
+    }
+
+    static int yearMonth(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
     }
 }
 
 public class FinanceTracker {
     public static void main(String[] args) {
         Database.initialize();
+        BudgetGuard.addListener(event -> System.out.println(event));
+        BudgetGuard.startReconciliation(15);
+        for (String statement : args) {
+            try {
+                System.out.println("Imported " + new StatementImporter().importFile(Path.of(statement)) + " transactions from " + statement);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
         Transaction t1 = new Transaction("Expense", "Food", 50.0, "2025-02-05");
         t1.save();
         Budget.setBudget("Food", 500);
@@ -1,4 +1,26 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 class Database {
     private static final String URL = "jdbc:sqlite:home_inventory.db";
@@ -15,10 +37,31 @@ class Database {
         try (Connection conn = connect(); Statement stmt = conn.createStatement()) {
             stmt.execute("CREATE TABLE IF NOT EXISTS Items (id INTEGER PRIMARY KEY, category TEXT, name TEXT, value REAL)");
             stmt.execute("CREATE TABLE IF NOT EXISTS Warranties (id INTEGER PRIMARY KEY, item_id INTEGER, expiration_date TEXT, FOREIGN KEY(item_id) REFERENCES Items(id))");
+            addColumnIfMissing(stmt, "Warranties", "expiration_day", "INTEGER");
+            stmt.execute("UPDATE Warranties SET expiration_day = CAST(julianday(expiration_date) - 2440587.5 AS INTEGER) " +
+                    "WHERE expiration_day IS NULL AND julianday(expiration_date) IS NOT NULL");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_warranties_expiration_day ON Warranties(expiration_day)");
+            stmt.execute("CREATE TABLE IF NOT EXISTS ItemAttachments (id INTEGER PRIMARY KEY, item_id INTEGER, hash TEXT NOT NULL, file_name TEXT, FOREIGN KEY(item_id) REFERENCES Items(id))");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_item_attachments_item ON ItemAttachments(item_id)");
+            stmt.execute("CREATE TABLE IF NOT EXISTS CategoryTotals (category TEXT PRIMARY KEY, total REAL NOT NULL, item_count INTEGER NOT NULL)");
+            // One-time backfill for inventories created before the summary table existed
+            stmt.execute("INSERT INTO CategoryTotals (category, total, item_count) SELECT IFNULL(category, ''), SUM(value), COUNT(*) FROM Items " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM CategoryTotals) GROUP BY IFNULL(category, '')");
         } catch (SQLException e) {
             throw new RuntimeException("Database initialization error", e);
         }
     }
+
+    static void addColumnIfMissing(Statement stmt, String table, String column, String type) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("name"))) {
+                    return;
+                }
+            }
+        }
+        stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + type);
+    }
 }
 
 class Item {
@@ -33,11 +76,26 @@ class Item {
 
     public void save() {
         String sql = "INSERT INTO Items (category, name, value) VALUES (?, ?, ?)";
-        try (Connection conn = Database.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, category);
-            pstmt.setString(2, name);
-            pstmt.setDouble(3, value);
-            pstmt.executeUpdate();
+        String totalsSql = "INSERT INTO CategoryTotals (category, total, item_count) VALUES (?, ?, 1) " +
+                "ON CONFLICT(category) DO UPDATE SET total = total + excluded.total, item_count = item_count + 1";
+        // Load the mirror before committing so this row is counted exactly once
+        AssetTracker.ensureLoaded();
+        try (Connection conn = Database.connect()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql); PreparedStatement totals = conn.prepareStatement(totalsSql)) {
+                pstmt.setString(1, category);
+                pstmt.setString(2, name);
+                pstmt.setDouble(3, value);
+                pstmt.executeUpdate();
+                totals.setString(1, category == null ? "" : category);
+                totals.setDouble(2, value);
+                totals.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            AssetTracker.recordItem(category, value);
         } catch (SQLException e) {
             throw new RuntimeException("Error saving item", e);
         }
@@ -46,24 +104,527 @@ class Item {
 
 class Warranty {
     public static void setWarranty(int itemId, String expirationDate) {
-        String sql = "INSERT INTO Warranties (item_id, expiration_date) VALUES (?, ?)";
+        long expirationDay;
+        try {
+            expirationDay = LocalDate.parse(expirationDate).toEpochDay();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Expiration date must be yyyy-MM-dd: " + expirationDate, e);
+        }
+        String sql = "INSERT INTO Warranties (item_id, expiration_date, expiration_day) VALUES (?, ?, ?)";
+        WarrantyExpiryIndex.ensureLoaded();
         try (Connection conn = Database.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, itemId);
             pstmt.setString(2, expirationDate);
+            pstmt.setLong(3, expirationDay);
             pstmt.executeUpdate();
+            WarrantyExpiryIndex.add(expirationDay, itemId);
         } catch (SQLException e) {
             throw new RuntimeException("Error setting warranty", e);
         }
     }
 }
 
+// Append-only, content-addressed store for item attachments. Each blob lives once in a segment file
+// as [hash(32) | length(8) | bytes]; SQLite only keeps the hex SHA-256 reference in ItemAttachments.
+class AttachmentStore implements AutoCloseable {
+    private static final long SEGMENT_LIMIT = 256L << 20;
+    private static final int HEADER = 40;
+
+    private static final class Location {
+        final int segment;
+        final long offset, length;
+
+        Location(int segment, long offset, long length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private final Path dir;
+    private final Map<String, Location> index = new HashMap<>();
+    private final TreeMap<Integer, FileChannel> segments = new TreeMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int activeSegment;
+
+    public AttachmentStore(Path dir) throws IOException {
+        this.dir = dir;
+        Files.createDirectories(dir);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "segment-*.dat")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                int id = Integer.parseInt(name.substring(8, name.length() - 4));
+                segments.put(id, FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE));
+            }
+        }
+        for (Map.Entry<Integer, FileChannel> e : segments.entrySet()) {
+            scan(e.getKey(), e.getValue());
+        }
+        activeSegment = segments.isEmpty() ? 1 : segments.lastKey();
+        if (segments.isEmpty()) {
+            segments.put(activeSegment, openSegment(activeSegment));
+        }
+    }
+
+    // Rebuilds the index from record headers; a torn record at the tail from a crash is truncated away
+    private void scan(int id, FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        long pos = 0, size = channel.size();
+        while (pos + HEADER <= size) {
+            header.clear();
+            channel.read(header, pos);
+            header.flip();
+            byte[] hash = new byte[32];
+            header.get(hash);
+            long length = header.getLong();
+            if (length < 0 || pos + HEADER + length > size) {
+                break;
+            }
+            index.put(toHex(hash), new Location(id, pos + HEADER, length));
+            pos += HEADER + length;
+        }
+        if (pos < size) {
+            channel.truncate(pos);
+        }
+    }
+
+    // Stores the file unless identical content is already present; returns its hex SHA-256
+    public String put(Path file) throws IOException {
+        String hash = toHex(digest(file));
+        lock.writeLock().lock();
+        try {
+            if (index.containsKey(hash)) {
+                return hash;
+            }
+            try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+                append(hash, source, 0, source.size());
+            }
+            return hash;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller must hold the write lock
+    private void append(String hash, FileChannel source, long from, long length) throws IOException {
+        FileChannel target = segments.get(activeSegment);
+        if (target.size() > 0 && target.size() + HEADER + length > SEGMENT_LIMIT) {
+            target.force(true);
+            activeSegment++;
+            target = openSegment(activeSegment);
+            segments.put(activeSegment, target);
+        }
+        long pos = target.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        header.put(fromHex(hash)).putLong(length).flip();
+        while (header.hasRemaining()) {
+            target.write(header, pos + HEADER - header.remaining());
+        }
+        long copied = 0;
+        while (copied < length) {
+            copied += source.transferTo(from + copied, length - copied, target.position(pos + HEADER + copied));
+        }
+        target.force(false);
+        index.put(hash, new Location(activeSegment, pos + HEADER, length));
+    }
+
+    // Read-only view backed by the page cache; no bytes are copied onto the Java heap
+    public ByteBuffer map(String hash) throws IOException {
+        lock.readLock().lock();
+        try {
+            Location loc = locate(hash);
+            return segments.get(loc.segment).map(FileChannel.MapMode.READ_ONLY, loc.offset, loc.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Streams the blob with FileChannel.transferTo, letting the kernel copy straight to the target (e.g. a socket)
+    public long transferTo(String hash, WritableByteChannel target) throws IOException {
+        lock.readLock().lock();
+        try {
+            Location loc = locate(hash);
+            FileChannel channel = segments.get(loc.segment);
+            long sent = 0;
+            while (sent < loc.length) {
+                sent += channel.transferTo(loc.offset + sent, loc.length - sent, target);
+            }
+            return sent;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(String hash) {
+        lock.readLock().lock();
+        try {
+            return index.containsKey(hash);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Rewrites sealed segments whose live share fell below minLiveRatio, keeping only referenced blobs
+    public int compact(Set<String> liveHashes, double minLiveRatio) throws IOException {
+        int compacted = 0;
+        lock.writeLock().lock();
+        try {
+            for (int id : new ArrayList<>(segments.headMap(activeSegment).keySet())) {
+                FileChannel channel = segments.get(id);
+                List<Map.Entry<String, Location>> live = new ArrayList<>();
+                long liveBytes = 0;
+                for (Map.Entry<String, Location> e : index.entrySet()) {
+                    if (e.getValue().segment == id && liveHashes.contains(e.getKey())) {
+                        live.add(e);
+                        liveBytes += HEADER + e.getValue().length;
+                    }
+                }
+                if (liveBytes >= channel.size() * minLiveRatio) {
+                    continue;
+                }
+                index.values().removeIf(loc -> loc.segment == id);
+                for (Map.Entry<String, Location> e : live) {
+                    append(e.getKey(), channel, e.getValue().offset, e.getValue().length);
+                }
+                channel.close();
+                segments.remove(id);
+                Files.delete(segmentPath(id));
+                compacted++;
+            }
+            return compacted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Location locate(String hash) throws IOException {
+        Location loc = index.get(hash);
+        if (loc == null) {
+            throw new NoSuchFileException("attachment " + hash);
+        }
+        return loc;
+    }
+
+    private FileChannel openSegment(int id) throws IOException {
+        return FileChannel.open(segmentPath(id), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private Path segmentPath(int id) {
+        return dir.resolve(String.format("segment-%05d.dat", id));
+    }
+
+    private static byte[] digest(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16);
+            while (channel.read(buf) != -1) {
+                buf.flip();
+                sha.update(buf);
+                buf.clear();
+            }
+            return sha.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static byte[] fromHex(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            for (FileChannel channel : segments.values()) {
+                channel.close();
+            }
+            segments.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
+
+class Attachment {
+    // Held shared while a blob is stored and referenced, exclusively while compaction decides what is live
+    private static final ReentrantReadWriteLock references = new ReentrantReadWriteLock();
+    private static AttachmentStore store;
+    private static ScheduledExecutorService compactor;
+
+    static synchronized AttachmentStore store() {
+        if (store == null) {
+            try {
+                store = new AttachmentStore(Path.of("attachments"));
+            } catch (IOException e) {
+                throw new RuntimeException("Error opening attachment store", e);
+            }
+        }
+        return store;
+    }
+
+    public static String attach(int itemId, Path file) {
+        references.readLock().lock();
+        try {
+            String hash = store().put(file);
+            String sql = "INSERT INTO ItemAttachments (item_id, hash, file_name) VALUES (?, ?, ?)";
+            try (Connection conn = Database.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, itemId);
+                pstmt.setString(2, hash);
+                pstmt.setString(3, file.getFileName().toString());
+                pstmt.executeUpdate();
+            }
+            return hash;
+        } catch (IOException e) {
+            throw new RuntimeException("Error storing attachment " + file, e);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error attaching file to item", e);
+        } finally {
+            references.readLock().unlock();
+        }
+    }
+
+    public static List<String> attachmentsOf(int itemId) {
+        List<String> hashes = new ArrayList<>();
+        String sql = "SELECT hash FROM ItemAttachments WHERE item_id = ?";
+        try (Connection conn = Database.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, itemId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    hashes.add(rs.getString(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error listing attachments", e);
+        }
+        return hashes;
+    }
+
+    // Periodically drops blobs no ItemAttachments row references any more
+    public static synchronized void startCompaction(Duration period, double minLiveRatio) {
+        if (compactor != null) {
+            return;
+        }
+        compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "attachment-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+        compactor.scheduleWithFixedDelay(() -> {
+            references.writeLock().lock();
+            try {
+                store().compact(referencedHashes(), minLiveRatio);
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+            } finally {
+                references.writeLock().unlock();
+            }
+        }, period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static Set<String> referencedHashes() {
+        Set<String> hashes = new HashSet<>();
+        try (Connection conn = Database.connect(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT DISTINCT hash FROM ItemAttachments")) {
+            while (rs.next()) {
+                hashes.add(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading attachment references", e);
+        }
+        return hashes;
+    }
+}
+
+// One warranty returned by an expiry sweep
+class ExpiringWarranty {
+    final int itemId;
+    final LocalDate expirationDate;
+
+    ExpiringWarranty(int itemId, LocalDate expirationDate) {
+        this.itemId = itemId;
+        this.expirationDate = expirationDate;
+    }
+}
+
+// A page of sweep results; pass nextDay/nextPosition back to continue, hasMore is false on the last page
+class ExpiryPage {
+    final List<ExpiringWarranty> warranties;
+    final long nextDay;
+    final int nextPosition;
+    final boolean hasMore;
+
+    ExpiryPage(List<ExpiringWarranty> warranties, long nextDay, int nextPosition, boolean hasMore) {
+        this.warranties = warranties;
+        this.nextDay = nextDay;
+        this.nextPosition = nextPosition;
+        this.hasMore = hasMore;
+    }
+}
+
+// Sorted epoch-day -> item-ids mirror of Warranties.expiration_day, loaded once through the SQLite index
+class WarrantyExpiryIndex {
+    private static final TreeMap<Long, DayBucket> itemsByDay = new TreeMap<>();
+    private static final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private static volatile boolean loaded;
+
+    // Returns up to limit warranties expiring in [from, to], starting at the cursor of a previous page
+    public static ExpiryPage expiring(LocalDate from, LocalDate to, long afterDay, int afterPosition, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive: " + limit);
+        }
+        ensureLoaded();
+        long start = Math.max(from.toEpochDay(), afterDay);
+        List<ExpiringWarranty> page = new ArrayList<>(Math.min(limit, 1024));
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<Long, DayBucket> entry : itemsByDay.subMap(start, true, to.toEpochDay(), true).entrySet()) {
+                long day = entry.getKey();
+                DayBucket bucket = entry.getValue();
+                LocalDate date = LocalDate.ofEpochDay(day);
+                for (int i = day == afterDay ? afterPosition : 0; i < bucket.size; i++) {
+                    if (page.size() == limit) {
+                        return new ExpiryPage(page, day, i, true);
+                    }
+                    page.add(new ExpiringWarranty(bucket.items[i], date));
+                }
+            }
+            return new ExpiryPage(page, to.toEpochDay() + 1, 0, false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static ExpiryPage expiringWithin(int days, int limit) {
+        LocalDate today = LocalDate.now();
+        return expiring(today, today.plusDays(days), Long.MIN_VALUE, 0, limit);
+    }
+
+    // Runs a sweep of the next windowDays every period, handing each page to the handler
+    public static ScheduledExecutorService scheduleSweep(int windowDays, Duration period, int pageSize, Consumer<List<ExpiringWarranty>> handler) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "warranty-expiry-sweep");
+            t.setDaemon(true);
+            return t;
+        });
+        // A failed sweep is logged and retried next period; an escaping exception would cancel the schedule
+        executor.scheduleAtFixedRate(() -> {
+            try {
+                LocalDate today = LocalDate.now();
+                ExpiryPage page = expiring(today, today.plusDays(windowDays), Long.MIN_VALUE, 0, pageSize);
+                handler.accept(page.warranties);
+                while (page.hasMore) {
+                    page = expiring(today, today.plusDays(windowDays), page.nextDay, page.nextPosition, pageSize);
+                    handler.accept(page.warranties);
+                }
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, 0, period.toMillis(), TimeUnit.MILLISECONDS);
+        return executor;
+    }
+
+    static void add(long day, int itemId) {
+        lock.writeLock().lock();
+        try {
+            DayBucket bucket = itemsByDay.computeIfAbsent(day, d -> new DayBucket());
+            if (bucket.size == bucket.items.length) {
+                bucket.items = Arrays.copyOf(bucket.items, bucket.size * 2);
+            }
+            bucket.items[bucket.size++] = itemId;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static final class DayBucket {
+        int[] items = new int[4];
+        int size;
+    }
+
+    static void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (WarrantyExpiryIndex.class) {
+            if (loaded) {
+                return;
+            }
+            String sql = "SELECT expiration_day, item_id FROM Warranties WHERE expiration_day IS NOT NULL ORDER BY expiration_day";
+            try (Connection conn = Database.connect(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    add(rs.getLong(1), rs.getInt(2));
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Error loading warranty expiry index", e);
+            }
+            loaded = true;
+        }
+    }
+}
+
+// Running valuation totals mirrored from CategoryTotals; loaded once, then updated after each committed Item.save
 class AssetTracker {
+    private static final Map<String, DoubleAdder> categoryTotals = new ConcurrentHashMap<>();
+    private static final DoubleAdder totalValue = new DoubleAdder();
+    private static volatile boolean loaded;
+
     public static double calculateTotalValue() {
-        String sql = "SELECT SUM(value) FROM Items";
-        try (Connection conn = Database.connect(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-            return rs.next() ? rs.getDouble(1) : 0.0;
-        } catch (SQLException e) {
-            throw new RuntimeException("Error calculating total asset value", e);
+        ensureLoaded();
+        return totalValue.sum();
+    }
+
+    public static double calculateCategoryValue(String category) {
+        ensureLoaded();
+        DoubleAdder total = categoryTotals.get(category == null ? "" : category);
+        return total == null ? 0.0 : total.sum();
+    }
+
+    public static Map<String, Double> calculateCategoryValues() {
+        ensureLoaded();
+        Map<String, Double> values = new TreeMap<>();
+        categoryTotals.forEach((category, total) -> values.put(category, total.sum()));
+        return values;
+    }
+
+    static void recordItem(String category, double value) {
+        categoryTotals.computeIfAbsent(category == null ? "" : category, c -> new DoubleAdder()).add(value);
+        totalValue.add(value);
+    }
+
+    static void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (AssetTracker.class) {
+            if (loaded) {
+                return;
+            }
+            String sql = "SELECT category, total FROM CategoryTotals";
+            try (Connection conn = Database.connect(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    categoryTotals.computeIfAbsent(rs.getString(1), c -> new DoubleAdder()).add(rs.getDouble(2));
+                    totalValue.add(rs.getDouble(2));
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Error calculating total asset value", e);
+            }
+            loaded = true;
         }
     }
 }
@@ -76,5 +637,8 @@ public class HomeInventoryAssetTracker {
         Warranty.setWarranty(1, "2026-08-10");
         double totalValue = AssetTracker.calculateTotalValue();
         System.out.println("Total asset value: $" + totalValue);
+        AssetTracker.calculateCategoryValues().forEach((category, value) -> System.out.println("  " + category + ": $" + value));
+        ExpiryPage expiring = WarrantyExpiryIndex.expiringWithin(30, 100);
+        expiring.warranties.forEach(w -> System.out.println("Warranty for item " + w.itemId + " expires on " + w.expirationDate));
     }
 }
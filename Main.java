@@ -1,5 +1,18 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.sql.*;
+import java.time.*;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 class Database {
     private static final String URL = "jdbc:sqlite:vehicles.db";
@@ -17,10 +30,30 @@ class Database {
             stmt.execute("CREATE TABLE IF NOT EXISTS Vehicles (id INTEGER PRIMARY KEY, brand TEXT, model TEXT, year INTEGER)");
             stmt.execute("CREATE TABLE IF NOT EXISTS FuelLog (id INTEGER PRIMARY KEY, vehicle_id INTEGER, mileage INTEGER, fuel DOUBLE, FOREIGN KEY(vehicle_id) REFERENCES Vehicles(id))");
             stmt.execute("CREATE TABLE IF NOT EXISTS Reminders (id INTEGER PRIMARY KEY, vehicle_id INTEGER, type TEXT, date TEXT, FOREIGN KEY(vehicle_id) REFERENCES Vehicles(id))");
+            stmt.execute("CREATE TABLE IF NOT EXISTS ImportCheckpoints (file TEXT PRIMARY KEY, byte_offset INTEGER)");
+            // Identify the file a checkpoint belongs to, so a replaced file is not resumed mid-line
+            addColumnIfMissing(stmt, "ImportCheckpoints", "file_size", "INTEGER");
+            addColumnIfMissing(stmt, "ImportCheckpoints", "modified_millis", "INTEGER");
+            addColumnIfMissing(stmt, "Reminders", "due_day", "INTEGER");
+            addColumnIfMissing(stmt, "Reminders", "fired", "INTEGER NOT NULL DEFAULT 0");
+            // Backfill rows written before due_day existed; julianday() yields NULL for unparsable dates
+            stmt.execute("UPDATE Reminders SET due_day = CAST(julianday(date) - 2440587.5 AS INTEGER) WHERE due_day IS NULL AND julianday(date) IS NOT NULL");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_reminders_pending_due ON Reminders(due_day) WHERE fired = 0");
         } catch (SQLException e) {
             throw new RuntimeException("Database initialization error", e);
         }
     }
+
+    static void addColumnIfMissing(Statement stmt, String table, String column, String type) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("name"))) {
+                    return;
+                }
+            }
+        }
+        stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + type);
+    }
 }
 
 class Vehicle {
@@ -55,33 +88,849 @@ class FuelLog {
             pstmt.setInt(2, mileage);
             pstmt.setDouble(3, fuel);
             pstmt.executeUpdate();
+            FuelEfficiencyStore.record(vehicleId, mileage, fuel);
         } catch (SQLException e) {
             throw new RuntimeException("Error logging fuel", e);
         }
     }
 }
 
+// Per-vehicle fuel statistics, updated incrementally as FuelLog rows are written
+class VehicleFuelStats {
+    final int vehicleId;
+    int lastMileage = -1;
+    double totalFuel;
+    long totalDistance;
+    double segmentFuel;
+    private final int[] windowDistance;
+    private final double[] windowFuel;
+    private int windowCount, windowHead;
+    private long windowDistanceSum;
+    private double windowFuelSum;
+
+    VehicleFuelStats(int vehicleId, int window) {
+        this.vehicleId = vehicleId;
+        this.windowDistance = new int[window];
+        this.windowFuel = new double[window];
+    }
+
+    // The fuel filled at a reading covers the distance driven since the previous reading
+    void record(int mileage, double fuel) {
+        totalFuel += fuel;
+        if (lastMileage >= 0 && mileage > lastMileage) {
+            int distance = mileage - lastMileage;
+            totalDistance += distance;
+            segmentFuel += fuel;
+            if (windowCount == windowDistance.length) {
+                windowDistanceSum -= windowDistance[windowHead];
+                windowFuelSum -= windowFuel[windowHead];
+            } else {
+                windowCount++;
+            }
+            windowDistance[windowHead] = distance;
+            windowFuel[windowHead] = fuel;
+            windowDistanceSum += distance;
+            windowFuelSum += fuel;
+            windowHead = (windowHead + 1) % windowDistance.length;
+        }
+        if (mileage > lastMileage) {
+            lastMileage = mileage;
+        }
+    }
+
+    double lifetimeKmPerLiter() {
+        return segmentFuel > 0 ? totalDistance / segmentFuel : 0.0;
+    }
+
+    double rollingKmPerLiter() {
+        return windowFuelSum > 0 ? windowDistanceSum / windowFuelSum : 0.0;
+    }
+
+    VehicleFuelStats copy() {
+        VehicleFuelStats c = new VehicleFuelStats(vehicleId, windowDistance.length);
+        c.lastMileage = lastMileage;
+        c.totalFuel = totalFuel;
+        c.totalDistance = totalDistance;
+        c.segmentFuel = segmentFuel;
+        System.arraycopy(windowDistance, 0, c.windowDistance, 0, windowDistance.length);
+        System.arraycopy(windowFuel, 0, c.windowFuel, 0, windowFuel.length);
+        c.windowCount = windowCount;
+        c.windowHead = windowHead;
+        c.windowDistanceSum = windowDistanceSum;
+        c.windowFuelSum = windowFuelSum;
+        return c;
+    }
+}
+
+// In-memory per-vehicle aggregates keyed by primitive vehicle_id (open addressing, linear probing)
+class FuelEfficiencyStore {
+    private static final int WINDOW = 10;
+    private static int[] keys = new int[1024];
+    private static VehicleFuelStats[] values = new VehicleFuelStats[1024];
+    private static int size;
+
+    // Replaces the in-memory state with a single ordered pass over FuelLog
+    public static synchronized void rebuild() {
+        keys = new int[1024];
+        values = new VehicleFuelStats[1024];
+        size = 0;
+        String sql = "SELECT vehicle_id, mileage, fuel FROM FuelLog ORDER BY id";
+        try (Connection conn = Database.connect(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                record(rs.getInt(1), rs.getInt(2), rs.getDouble(3));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error rebuilding fuel efficiency store", e);
+        }
+    }
+
+    public static synchronized void record(int vehicleId, int mileage, double fuel) {
+        int slot = slot(vehicleId);
+        VehicleFuelStats stats = values[slot];
+        if (stats == null) {
+            stats = new VehicleFuelStats(vehicleId, WINDOW);
+            keys[slot] = vehicleId;
+            values[slot] = stats;
+            if (++size * 4 > keys.length * 3) {
+                grow();
+            }
+        }
+        stats.record(mileage, fuel);
+    }
+
+    // Returns a snapshot so callers never observe a half-applied update; null if the vehicle has no fuel logs
+    public static synchronized VehicleFuelStats get(int vehicleId) {
+        VehicleFuelStats stats = values[slot(vehicleId)];
+        return stats == null ? null : stats.copy();
+    }
+
+    public static synchronized double rollingKmPerLiter(int vehicleId) {
+        VehicleFuelStats stats = values[slot(vehicleId)];
+        return stats == null ? 0.0 : stats.rollingKmPerLiter();
+    }
+
+    public static synchronized int size() {
+        return size;
+    }
+
+    private static int slot(int vehicleId) {
+        int mask = keys.length - 1;
+        int h = vehicleId * 0x9E3779B9;
+        int i = (h ^ (h >>> 16)) & mask;
+        while (values[i] != null && keys[i] != vehicleId) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private static void grow() {
+        int[] oldKeys = keys;
+        VehicleFuelStats[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new VehicleFuelStats[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
+
+// A single telemetry sample queued for batched insertion into FuelLog
+class FuelReading {
+    final int vehicleId;
+    final int mileage;
+    final double fuel;
+
+    FuelReading(int vehicleId, int mileage, double fuel) {
+        this.vehicleId = vehicleId;
+        this.mileage = mileage;
+        this.fuel = fuel;
+    }
+}
+
+// Batched FuelLog ingestion: producers block on a bounded queue (backpressure),
+// a single writer drains it into JDBC batches, one transaction per flush.
+class FuelLogPipeline implements AutoCloseable {
+    private static final String SQL = "INSERT INTO FuelLog (vehicle_id, mileage, fuel) VALUES (?, ?, ?)";
+
+    private final BlockingQueue<FuelReading> queue;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final Thread writer;
+    private final Thread shutdownHook;
+    private volatile boolean running = true;
+    private volatile RuntimeException failure;
+    // Producers between their running check and their enqueue; the writer drains until this is zero
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public FuelLogPipeline() {
+        this(65_536, 2_000, 50);
+    }
+
+    public FuelLogPipeline(int capacity, int batchSize, long maxDelayMillis) {
+        if (capacity < batchSize || batchSize <= 0 || maxDelayMillis <= 0) {
+            throw new IllegalArgumentException("capacity must be >= batchSize and limits must be positive");
+        }
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.writer = new Thread(this::runWriter, "fuellog-writer");
+        this.writer.start();
+        this.shutdownHook = new Thread(this::close, "fuellog-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    // Blocks while the queue is full so producers slow down to the writer's pace
+    public void submit(int vehicleId, int mileage, double fuel) throws InterruptedException {
+        enqueue(new FuelReading(vehicleId, mileage, fuel), Long.MAX_VALUE);
+    }
+
+    // Non-blocking variant for callers that prefer to shed load; false when the queue stayed full
+    public boolean offer(int vehicleId, int mileage, double fuel, long timeout, TimeUnit unit) throws InterruptedException {
+        return enqueue(new FuelReading(vehicleId, mileage, fuel), unit.toNanos(timeout));
+    }
+
+    // Waits in short slices so a close or writer failure while the queue is full is noticed instead of
+    // blocking forever; a reading accepted here is always written or reported through close()
+    private boolean enqueue(FuelReading reading, long timeoutNanos) throws InterruptedException {
+        inFlight.incrementAndGet();
+        try {
+            long deadline = System.nanoTime() + timeoutNanos;
+            while (true) {
+                ensureAccepting();
+                long remaining = timeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : deadline - System.nanoTime();
+                if (queue.offer(reading, Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(50)), TimeUnit.NANOSECONDS)) {
+                    break;
+                }
+                if (remaining <= 0) {
+                    return false;
+                }
+            }
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        if (failure != null) {
+            throw new RuntimeException("Fuel log pipeline failed", failure);
+        }
+        return true;
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    private void ensureAccepting() {
+        if (failure != null) {
+            throw new RuntimeException("Fuel log pipeline failed", failure);
+        }
+        if (!running) {
+            throw new IllegalStateException("Fuel log pipeline is closed");
+        }
+    }
+
+    private void runWriter() {
+        List<FuelReading> batch = new ArrayList<>(batchSize);
+        try (Connection conn = Database.connect()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA journal_mode=WAL");
+                stmt.execute("PRAGMA synchronous=NORMAL");
+            }
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL)) {
+                // inFlight is read before the queue so a producer that passed its check is always drained
+                while (running || inFlight.get() > 0 || !queue.isEmpty()) {
+                    collect(batch);
+                    if (!batch.isEmpty()) {
+                        flush(conn, pstmt, batch);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            failure = new RuntimeException("Error logging fuel batch", e);
+            running = false;
+            queue.clear(); // producers see the failure on their next check or right after enqueueing
+        }
+    }
+
+    // Fills the batch until it reaches batchSize or maxDelay has passed since the first reading
+    private void collect(List<FuelReading> batch) {
+        try {
+            FuelReading first = queue.poll(maxDelayNanos, TimeUnit.NANOSECONDS);
+            if (first == null) {
+                return;
+            }
+            batch.add(first);
+            long deadline = System.nanoTime() + maxDelayNanos;
+            while (batch.size() < batchSize) {
+                if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !running) {
+                    break;
+                }
+                FuelReading next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+            }
+        } catch (InterruptedException e) {
+            running = false;
+        }
+    }
+
+    private void flush(Connection conn, PreparedStatement pstmt, List<FuelReading> batch) throws SQLException {
+        try {
+            for (FuelReading r : batch) {
+                pstmt.setInt(1, r.vehicleId);
+                pstmt.setInt(2, r.mileage);
+                pstmt.setDouble(3, r.fuel);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            conn.commit();
+            for (FuelReading r : batch) {
+                FuelEfficiencyStore.record(r.vehicleId, r.mileage, r.fuel);
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            pstmt.clearBatch();
+            batch.clear();
+        }
+    }
+
+    // Stops accepting readings, flushes everything still queued and waits for the writer
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // JVM is already shutting down; the hook is running or has run
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
+
 class Reminder {
     public static void setReminder(int vehicleId, String type, String date) {
-        String sql = "INSERT INTO Reminders (vehicle_id, type, date) VALUES (?, ?, ?)";
-        try (Connection conn = Database.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        long dueDay;
+        try {
+            dueDay = LocalDate.parse(date).toEpochDay();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Reminder date must be yyyy-MM-dd: " + date, e);
+        }
+        String sql = "INSERT INTO Reminders (vehicle_id, type, date, due_day) VALUES (?, ?, ?, ?)";
+        try (Connection conn = Database.connect(); PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setInt(1, vehicleId);
             pstmt.setString(2, type);
             pstmt.setString(3, date);
+            pstmt.setLong(4, dueDay);
             pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    ReminderScheduler.onReminderSaved(new DueReminder(keys.getInt(1), vehicleId, type, dueDay));
+                }
+            }
         } catch (SQLException e) {
             throw new RuntimeException("Error setting reminder", e);
         }
     }
 }
 
+// A pending reminder held by the scheduler; dueDay is the reminder date as an epoch day
+class DueReminder {
+    final int id;
+    final int vehicleId;
+    final String type;
+    final long dueDay;
+
+    DueReminder(int id, int vehicleId, String type, long dueDay) {
+        this.id = id;
+        this.vehicleId = vehicleId;
+        this.type = type;
+        this.dueDay = dueDay;
+    }
+
+    LocalDate date() {
+        return LocalDate.ofEpochDay(dueDay);
+    }
+}
+
+interface ReminderHandler {
+    void onDue(DueReminder reminder);
+}
+
+// Keeps reminders due within a sliding window in a date-ordered heap and wakes up exactly when
+// the earliest one is due. The database is read once per window through the partial due_day index.
+class ReminderScheduler {
+    private static final int WINDOW_DAYS = 30;
+    private static final long RETRY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final PriorityQueue<DueReminder> pending =
+            new PriorityQueue<>(Comparator.comparingLong((DueReminder r) -> r.dueDay).thenComparingInt(r -> r.id));
+    // Ids currently in the heap, so a reminder seen by both loadWindow and onReminderSaved is queued once
+    private static final Set<Integer> pendingIds = new HashSet<>();
+    private static final List<ReminderHandler> handlers = new CopyOnWriteArrayList<>();
+    private static ScheduledExecutorService executor;
+    private static ScheduledFuture<?> wakeUp;
+    private static long windowEnd = Long.MIN_VALUE;
+
+    public static void addHandler(ReminderHandler handler) {
+        handlers.add(handler);
+    }
+
+    public static synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "reminder-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        pending.clear();
+        pendingIds.clear();
+        windowEnd = Long.MIN_VALUE;
+        executor.execute(ReminderScheduler::tick);
+    }
+
+    public static synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+            pending.clear();
+            pendingIds.clear();
+        }
+    }
+
+    // Called after a reminder row is committed; only reminders inside the loaded window are queued
+    static synchronized void onReminderSaved(DueReminder reminder) {
+        if (executor == null || reminder.dueDay >= windowEnd) {
+            return;
+        }
+        DueReminder head = pending.peek();
+        if (!enqueue(reminder)) {
+            return;
+        }
+        if (head == null || reminder.dueDay < head.dueDay) {
+            executor.execute(ReminderScheduler::tick);
+        }
+    }
+
+    // Database errors never escape: the failed step is logged and the next tick is always scheduled,
+    // after RETRY_MILLIS when something went wrong
+    private static void tick() {
+        boolean failed = false;
+        List<DueReminder> due = new ArrayList<>();
+        synchronized (ReminderScheduler.class) {
+            if (executor == null) {
+                return;
+            }
+            try {
+                long today = LocalDate.now().toEpochDay();
+                if (today + WINDOW_DAYS / 2 >= windowEnd) {
+                    loadWindow(today + WINDOW_DAYS);
+                }
+                while (!pending.isEmpty() && pending.peek().dueDay <= today) {
+                    DueReminder reminder = pending.poll();
+                    pendingIds.remove(reminder.id);
+                    due.add(reminder);
+                }
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                failed = true;
+            }
+        }
+        for (DueReminder reminder : due) {
+            try {
+                dispatch(reminder);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                failed = true;
+                synchronized (ReminderScheduler.class) {
+                    enqueue(reminder);
+                }
+            }
+        }
+        synchronized (ReminderScheduler.class) {
+            if (executor != null) {
+                if (failed) {
+                    scheduleWakeUp(RETRY_MILLIS);
+                } else {
+                    scheduleNextWakeUp();
+                }
+            }
+        }
+    }
+
+    private static boolean enqueue(DueReminder reminder) {
+        if (!pendingIds.add(reminder.id)) {
+            return false;
+        }
+        pending.add(reminder);
+        return true;
+    }
+
+    // Appends reminders in [windowEnd, newEnd) to the heap; overdue reminders are picked up on the first load
+    private static void loadWindow(long newEnd) {
+        String sql = "SELECT id, vehicle_id, type, due_day FROM Reminders WHERE fired = 0 AND due_day >= ? AND due_day < ?";
+        try (Connection conn = Database.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, windowEnd);
+            pstmt.setLong(2, newEnd);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    enqueue(new DueReminder(rs.getInt(1), rs.getInt(2), rs.getString(3), rs.getLong(4)));
+                }
+            }
+            windowEnd = newEnd;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error loading reminders", e);
+        }
+    }
+
+    // Claims the row before notifying, so a reminder that was somehow queued twice still fires once
+    private static void dispatch(DueReminder reminder) {
+        String sql = "UPDATE Reminders SET fired = 1 WHERE id = ? AND fired = 0";
+        try (Connection conn = Database.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, reminder.id);
+            if (pstmt.executeUpdate() == 0) {
+                return;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error marking reminder as fired", e);
+        }
+        for (ReminderHandler handler : handlers) {
+            try {
+                handler.onDue(reminder);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Sleeps until the next reminder's day starts, or until the window needs to slide, whichever is first
+    private static void scheduleNextWakeUp() {
+        long nextDay = windowEnd - WINDOW_DAYS / 2;
+        if (!pending.isEmpty()) {
+            nextDay = Math.min(nextDay, pending.peek().dueDay);
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        long delayMillis = LocalDate.ofEpochDay(nextDay).atStartOfDay(zone).toInstant().toEpochMilli() - System.currentTimeMillis();
+        scheduleWakeUp(Math.max(0, delayMillis));
+    }
+
+    private static void scheduleWakeUp(long delayMillis) {
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+        }
+        wakeUp = executor.schedule(ReminderScheduler::tick, delayMillis, TimeUnit.MILLISECONDS);
+    }
+}
+
+// Progress snapshot reported after every committed chunk of a bulk import
+class ImportProgress {
+    final long bytesDone, totalBytes, vehicles, fuelLogs, elapsedNanos;
+
+    ImportProgress(long bytesDone, long totalBytes, long vehicles, long fuelLogs, long elapsedNanos) {
+        this.bytesDone = bytesDone;
+        this.totalBytes = totalBytes;
+        this.vehicles = vehicles;
+        this.fuelLogs = fuelLogs;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    double percent() {
+        return totalBytes == 0 ? 100.0 : bytesDone * 100.0 / totalBytes;
+    }
+
+    double rowsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : (vehicles + fuelLogs) * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.1f%% (%d vehicles, %d fuel logs, %.0f rows/s)", percent(), vehicles, fuelLogs, rowsPerSecond());
+    }
+}
+
+// Streams a fleet CSV through memory-mapped windows of the file and loads it with batched inserts.
+// Rows are "V,id,brand,model,year" or "F,vehicle_id,mileage,fuel"; fields are unquoted and may not
+// contain commas. Every chunk commits together with its byte offset in ImportCheckpoints, so an
+// interrupted import of the same, unchanged file resumes after the last committed row.
+class FleetCsvImporter {
+    private static final long WINDOW = 64L << 20;
+    private static final String VEHICLE_SQL = "INSERT OR REPLACE INTO Vehicles (id, brand, model, year) VALUES (?, ?, ?, ?)";
+    private static final String FUEL_SQL = "INSERT INTO FuelLog (vehicle_id, mileage, fuel) VALUES (?, ?, ?)";
+    private static final String CHECKPOINT_SQL = "INSERT INTO ImportCheckpoints (file, byte_offset, file_size, modified_millis) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT(file) DO UPDATE SET byte_offset = excluded.byte_offset, file_size = excluded.file_size, modified_millis = excluded.modified_millis";
+
+    private final int chunkRows;
+    private final Consumer<ImportProgress> progress;
+    private final String[] textCache = new String[4096];
+    private final byte[][] textCacheKeys = new byte[4096][];
+    private final int[] fieldStart = new int[5];
+    private final int[] fieldEnd = new int[5];
+
+    public FleetCsvImporter(int chunkRows, Consumer<ImportProgress> progress) {
+        this.chunkRows = chunkRows;
+        this.progress = progress;
+    }
+
+    public ImportProgress importFile(Path file) throws IOException {
+        String key = file.toAbsolutePath().normalize().toString();
+        long start = System.nanoTime();
+        long vehicles = 0, fuelLogs = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             Connection conn = Database.connect()) {
+            conn.setAutoCommit(false);
+            long size = channel.size();
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            long offset = loadCheckpoint(conn, key, size, modified);
+            try (PreparedStatement vehicleStmt = conn.prepareStatement(VEHICLE_SQL);
+                 PreparedStatement fuelStmt = conn.prepareStatement(FUEL_SQL);
+                 PreparedStatement checkpointStmt = conn.prepareStatement(CHECKPOINT_SQL)) {
+                int rowsInChunk = 0;
+                while (offset < size) {
+                    MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW, size - offset));
+                    int limit = buf.limit();
+                    int lineStart = 0;
+                    while (lineStart < limit) {
+                        int lineEnd = lineStart;
+                        while (lineEnd < limit && buf.get(lineEnd) != '\n') {
+                            lineEnd++;
+                        }
+                        if (lineEnd == limit && offset + limit < size) {
+                            if (lineStart == 0) {
+                                throw new IOException("Row longer than " + WINDOW + " bytes at offset " + offset);
+                            }
+                            break;
+                        }
+                        char kind = parseRow(buf, lineStart, lineEnd);
+                        if (kind == 'V') {
+                            vehicleStmt.setInt(1, parseInt(buf, 1, offset));
+                            vehicleStmt.setString(2, text(buf, 2));
+                            vehicleStmt.setString(3, text(buf, 3));
+                            vehicleStmt.setInt(4, parseInt(buf, 4, offset));
+                            vehicleStmt.addBatch();
+                            vehicles++;
+                            rowsInChunk++;
+                        } else if (kind == 'F') {
+                            fuelStmt.setInt(1, parseInt(buf, 1, offset));
+                            fuelStmt.setInt(2, parseInt(buf, 2, offset));
+                            fuelStmt.setDouble(3, parseDouble(buf, 3));
+                            fuelStmt.addBatch();
+                            fuelLogs++;
+                            rowsInChunk++;
+                        }
+                        lineStart = lineEnd + 1;
+                        if (rowsInChunk >= chunkRows) {
+                            commitChunk(conn, vehicleStmt, fuelStmt, checkpointStmt, key, offset + Math.min(lineStart, limit), size, modified);
+                            rowsInChunk = 0;
+                            progress.accept(new ImportProgress(offset + Math.min(lineStart, limit), size, vehicles, fuelLogs, System.nanoTime() - start));
+                        }
+                    }
+                    offset += Math.min(lineStart, limit);
+                }
+                // The last chunk commits together with removing the checkpoint; a finished file starts over next time
+                vehicleStmt.executeBatch();
+                fuelStmt.executeBatch();
+                try (PreparedStatement delete = conn.prepareStatement("DELETE FROM ImportCheckpoints WHERE file = ?")) {
+                    delete.setString(1, key);
+                    delete.executeUpdate();
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+            if (fuelLogs > 0) {
+                FuelEfficiencyStore.rebuild();
+            }
+            ImportProgress done = new ImportProgress(size, size, vehicles, fuelLogs, System.nanoTime() - start);
+            progress.accept(done);
+            return done;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error importing " + file, e);
+        }
+    }
+
+    // Resumes only when the checkpoint was taken on this exact file (same size and modification time)
+    private static long loadCheckpoint(Connection conn, String key, long size, long modified) throws SQLException {
+        String sql = "SELECT byte_offset FROM ImportCheckpoints WHERE file = ? AND file_size = ? AND modified_millis = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, key);
+            pstmt.setLong(2, size);
+            pstmt.setLong(3, modified);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? Math.min(rs.getLong(1), size) : 0L;
+            }
+        }
+    }
+
+    private static void commitChunk(Connection conn, PreparedStatement vehicleStmt, PreparedStatement fuelStmt,
+                                    PreparedStatement checkpointStmt, String key, long offset, long size, long modified) throws SQLException {
+        // Vehicles go first so fuel rows in the same chunk can reference them
+        vehicleStmt.executeBatch();
+        fuelStmt.executeBatch();
+        checkpointStmt.setString(1, key);
+        checkpointStmt.setLong(2, offset);
+        checkpointStmt.setLong(3, size);
+        checkpointStmt.setLong(4, modified);
+        checkpointStmt.executeUpdate();
+        conn.commit();
+    }
+
+    // Splits the line into field bounds in place; returns the record kind, or 0 for blank/header/unknown rows
+    private char parseRow(ByteBuffer buf, int from, int to) {
+        if (to > from && buf.get(to - 1) == '\r') {
+            to--;
+        }
+        if (to - from < 2 || buf.get(from + 1) != ',') {
+            return 0;
+        }
+        char kind = (char) buf.get(from);
+        int expected = kind == 'V' ? 5 : kind == 'F' ? 4 : 0;
+        if (expected == 0) {
+            return 0;
+        }
+        int field = 0;
+        fieldStart[0] = from;
+        for (int i = from; i < to && field < expected; i++) {
+            if (buf.get(i) == ',') {
+                fieldEnd[field++] = i;
+                if (field < expected) {
+                    fieldStart[field] = i + 1;
+                }
+            }
+        }
+        if (field == expected - 1) {
+            fieldEnd[field++] = to;
+        }
+        if (field != expected) {
+            throw new IllegalArgumentException("Malformed " + kind + " row: expected " + expected + " fields");
+        }
+        return kind;
+    }
+
+    private int parseInt(ByteBuffer buf, int field, long windowOffset) {
+        int i = fieldStart[field], end = fieldEnd[field];
+        boolean negative = i < end && buf.get(i) == '-';
+        if (negative) {
+            i++;
+        }
+        if (i == end) {
+            throw new IllegalArgumentException("Empty numeric field near offset " + (windowOffset + fieldStart[field]));
+        }
+        // Accumulates negatively, as Integer.parseInt does, so Integer.MIN_VALUE is accepted and overflow is caught
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int value = 0;
+        for (; i < end; i++) {
+            int d = buf.get(i) - '0';
+            if (d < 0 || d > 9) {
+                throw new IllegalArgumentException("Invalid integer near offset " + (windowOffset + fieldStart[field]));
+            }
+            if (value < limit / 10 || value * 10 < limit + d) {
+                throw new IllegalArgumentException("Integer out of range near offset " + (windowOffset + fieldStart[field]));
+            }
+            value = value * 10 - d;
+        }
+        return negative ? value : -value;
+    }
+
+    // Plain decimals are parsed in place; anything else (exponents, NaN) falls back to Double.parseDouble
+    private double parseDouble(ByteBuffer buf, int field) {
+        int i = fieldStart[field], end = fieldEnd[field];
+        boolean negative = i < end && buf.get(i) == '-';
+        if (negative) {
+            i++;
+        }
+        long mantissa = 0;
+        int scale = 0, digits = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            byte b = buf.get(i);
+            if (b == '.' && !fraction) {
+                fraction = true;
+            } else if (b >= '0' && b <= '9' && digits < 18) {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fraction) {
+                    scale++;
+                }
+            } else {
+                return Double.parseDouble(text(buf, field));
+            }
+        }
+        double value = mantissa / Math.pow(10, scale);
+        return negative ? -value : value;
+    }
+
+    // Brands and models repeat heavily, so decoded strings are reused through a small hash-indexed cache
+    private String text(ByteBuffer buf, int field) {
+        int from = fieldStart[field], len = fieldEnd[field] - from;
+        int hash = 1;
+        for (int i = 0; i < len; i++) {
+            hash = 31 * hash + buf.get(from + i);
+        }
+        int slot = (hash ^ (hash >>> 16)) & (textCache.length - 1);
+        byte[] cached = textCacheKeys[slot];
+        if (cached != null && cached.length == len) {
+            boolean same = true;
+            for (int i = 0; i < len && same; i++) {
+                same = cached[i] == buf.get(from + i);
+            }
+            if (same) {
+                return textCache[slot];
+            }
+        }
+        byte[] bytes = new byte[len];
+        buf.get(from, bytes);
+        textCacheKeys[slot] = bytes;
+        textCache[slot] = new String(bytes, StandardCharsets.UTF_8);
+        return textCache[slot];
+    }
+}
+
 public class Main {
     public static void main(String[] args) {
         Database.initialize();
+        FuelEfficiencyStore.rebuild();
+        if (args.length > 0) {
+            try {
+                ImportProgress result = new FleetCsvImporter(10_000, p -> System.out.println("Import progress: " + p)).importFile(Path.of(args[0]));
+                System.out.println("Imported " + args[0] + ": " + result);
+            } catch (IOException e) {
+                throw new RuntimeException("Error reading " + args[0], e);
+            }
+        }
+        ReminderScheduler.addHandler(r -> System.out.println("Reminder due: " + r.type + " for vehicle " + r.vehicleId + " on " + r.date()));
+        ReminderScheduler.start();
         Vehicle car = new Vehicle("Toyota", "Camry", 2020);
         car.save();
         FuelLog.logFuel(1, 12000, 40);
+        try (FuelLogPipeline pipeline = new FuelLogPipeline()) {
+            pipeline.submit(1, 12450, 38.5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
         Reminder.setReminder(1, "Service", "2025-06-15");
+        System.out.println("Vehicle 1 rolling efficiency: " + FuelEfficiencyStore.rollingKmPerLiter(1) + " km/L");
         System.out.println("Vehicle registered and logs updated.");
+        ReminderScheduler.stop();
     }
 }
\ No newline at end of file
@@ -1,5 +1,20 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
 import java.sql.*;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
 
 // Database Connection & Table Initialization
 class DatabaseHelper {
@@ -19,8 +34,28 @@ class DatabaseHelper {
         };
         try (Connection conn = connect(); Statement stmt = conn.createStatement()) {
             for (String query : queries) stmt.execute(query);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_users_email ON Users(email);");
+            addColumnIfMissing(stmt, "WasteBins", "latitude", "REAL");
+            addColumnIfMissing(stmt, "WasteBins", "longitude", "REAL");
+            stmt.execute("CREATE TABLE IF NOT EXISTS CollectionRoutes (id INTEGER PRIMARY KEY, collectorId INTEGER, scheduledDate TEXT, distanceKm REAL);");
+            addColumnIfMissing(stmt, "WasteCollection", "routeId", "INTEGER");
+            addColumnIfMissing(stmt, "WasteCollection", "stopOrder", "INTEGER");
+            addColumnIfMissing(stmt, "Recyclables", "recordedAt", "INTEGER");
+            for (String rollup : new String[]{"RecyclablesHourly", "RecyclablesDaily", "RecyclablesMonthly"}) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS " + rollup + " (bucket INTEGER, type TEXT, binId INTEGER, quantity INTEGER, PRIMARY KEY (bucket, type, binId));");
+            }
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_collection_date_id ON WasteCollection(scheduledDate, id);");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_collection_status_date_id ON WasteCollection(status, scheduledDate, id);");
+            UserService.hashPlaintextPasswords(conn);
         } catch (SQLException e) { e.printStackTrace(); }
     }
+
+    static void addColumnIfMissing(Statement stmt, String table, String column, String type) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) if (column.equalsIgnoreCase(rs.getString("name"))) return;
+        }
+        stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + type);
+    }
 }
 
 // User Model & Authentication
@@ -32,32 +67,197 @@ class User {
 }
 
 class UserService {
+    private static final int ITERATIONS = 210_000;
+    private static final SessionCache sessions = new SessionCache(10_000, 30 * 60 * 1000L);
+    private static final SecureRandom random = new SecureRandom();
+
+    // Checks the credentials only; no session is opened
     public boolean login(String email, String password) {
-        String sql = "SELECT * FROM Users WHERE email = ? AND password = ?";
+        return verifyCredentials(email, password) != null;
+    }
+
+    // Verifies the password and opens a session; returns its token, or null
+    public String authenticate(String email, String password) {
+        User user = verifyCredentials(email, password);
+        return user == null ? null : sessions.open(user);
+    }
+
+    // Verifies the password against the stored PBKDF2 hash. Rows still holding a plaintext password (written
+    // outside this service after startup) are upgraded to a hash on their first successful login.
+    private User verifyCredentials(String email, String password) {
+        String sql = "SELECT * FROM Users WHERE email = ?";
         try (Connection conn = DatabaseHelper.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, email); pstmt.setString(2, password);
+            pstmt.setString(1, email);
             ResultSet rs = pstmt.executeQuery();
-            return rs.next();
-        } catch (SQLException e) { e.printStackTrace(); return false; }
+            if (!rs.next()) return null;
+            User user = new User(rs.getInt("id"), rs.getString("name"), rs.getString("role"), rs.getString("email"), null);
+            String stored = rs.getString("password");
+            if (stored == null) return null;
+            if (stored.startsWith("pbkdf2$")) {
+                if (!verify(password, stored)) return null;
+            } else {
+                if (!MessageDigest.isEqual(stored.getBytes(StandardCharsets.UTF_8), password.getBytes(StandardCharsets.UTF_8))) return null;
+                updatePassword(conn, user.id, password);
+            }
+            return user;
+        } catch (SQLException e) { e.printStackTrace(); return null; }
+    }
+
+    // One-time upgrade at startup so plaintext passwords do not stay on disk until each user next logs in
+    static void hashPlaintextPasswords(Connection conn) throws SQLException {
+        Map<Integer, String> plaintext = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, password FROM Users WHERE password IS NOT NULL AND password NOT LIKE 'pbkdf2$%'")) {
+            while (rs.next()) plaintext.put(rs.getInt(1), rs.getString(2));
+        }
+        if (plaintext.isEmpty()) return;
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement pstmt = conn.prepareStatement("UPDATE Users SET password = ? WHERE id = ? AND password = ?")) {
+            for (Map.Entry<Integer, String> row : plaintext.entrySet()) {
+                pstmt.setString(1, hash(row.getValue())); pstmt.setInt(2, row.getKey()); pstmt.setString(3, row.getValue());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    // In-memory check for repeat calls; no database access and no hashing
+    public User session(String token) {
+        return sessions.get(token);
+    }
+
+    public void logout(String token) {
+        sessions.close(token);
+    }
+
+    // Ends every session of a user, e.g. after a password change or when an account is disabled
+    public void logoutEverywhere(int userId) {
+        sessions.closeAll(userId);
+    }
+
+    public void register(String name, String role, String email, String password) {
+        String sql = "INSERT INTO Users (name, role, email, password) VALUES (?, ?, ?, ?)";
+        try (Connection conn = DatabaseHelper.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, name); pstmt.setString(2, role); pstmt.setString(3, email); pstmt.setString(4, hash(password));
+            pstmt.executeUpdate();
+        } catch (SQLException e) { e.printStackTrace(); }
+    }
+
+    private void updatePassword(Connection conn, int userId, String password) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("UPDATE Users SET password = ? WHERE id = ?")) {
+            pstmt.setString(1, hash(password)); pstmt.setInt(2, userId); pstmt.executeUpdate();
+        }
+    }
+
+    // Stored as pbkdf2$<iterations>$<base64 salt>$<base64 hash>
+    static String hash(String password) {
+        byte[] salt = new byte[16];
+        random.nextBytes(salt);
+        Base64.Encoder b64 = Base64.getEncoder();
+        return "pbkdf2$" + ITERATIONS + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(pbkdf2(password, salt, ITERATIONS));
+    }
+
+    // A malformed stored value is a failed login, not an exception
+    static boolean verify(String password, String stored) {
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) return false;
+        try {
+            int iterations = Integer.parseInt(parts[1]);
+            if (iterations <= 0 || iterations > 10_000_000) return false;
+            Base64.Decoder b64 = Base64.getDecoder();
+            byte[] expected = b64.decode(parts[3]), salt = b64.decode(parts[2]);
+            if (expected.length == 0 || salt.length == 0) return false;
+            return MessageDigest.isEqual(expected, pbkdf2(password, salt, iterations));
+        } catch (IllegalArgumentException e) {
+            return false; // NumberFormatException or bad Base64
+        }
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        try {
+            PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, 256);
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2 unavailable", e);
+        }
     }
 }
 
+// Bounded LRU of verified sessions with an absolute TTL; the least recently used session is evicted when full
+class SessionCache {
+    private static final class Session {
+        final User user; final long expiresAt;
+        Session(User user, long expiresAt) { this.user = user; this.expiresAt = expiresAt; }
+    }
+
+    private final int maxSessions;
+    private final long ttlMillis;
+    private final SecureRandom random = new SecureRandom();
+    private final LinkedHashMap<String, Session> sessions;
+
+    SessionCache(int maxSessions, long ttlMillis) {
+        this.maxSessions = maxSessions;
+        this.ttlMillis = ttlMillis;
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+                return size() > SessionCache.this.maxSessions;
+            }
+        };
+    }
+
+    synchronized String open(User user) {
+        byte[] bytes = new byte[24];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        sessions.put(token, new Session(user, System.currentTimeMillis() + ttlMillis));
+        return token;
+    }
+
+    synchronized User get(String token) {
+        Session s = sessions.get(token);
+        if (s == null) return null;
+        if (s.expiresAt < System.currentTimeMillis()) { sessions.remove(token); return null; }
+        return s.user;
+    }
+
+    synchronized void close(String token) { sessions.remove(token); }
+
+    synchronized void closeAll(int userId) { sessions.values().removeIf(s -> s.user.id == userId); }
+}
+
 // WasteBin Model
 class WasteBin {
     int id, capacity, currentLevel; String location, lastCollected;
+    double latitude = Double.NaN, longitude = Double.NaN;
     WasteBin(int id, String location, int capacity, int currentLevel, String lastCollected) {
         this.id = id; this.location = location; this.capacity = capacity;
         this.currentLevel = currentLevel; this.lastCollected = lastCollected;
     }
+    WasteBin(int id, String location, int capacity, int currentLevel, String lastCollected, double latitude, double longitude) {
+        this(id, location, capacity, currentLevel, lastCollected);
+        this.latitude = latitude; this.longitude = longitude;
+    }
 }
 
 // WasteBin DAO with Alerts & Updates
 class WasteBinDAO {
     void insertWasteBin(WasteBin bin) {
-        String sql = "INSERT INTO WasteBins (location, capacity, currentLevel, lastCollected) VALUES (?, ?, ?, ?)";
-        try (Connection conn = DatabaseHelper.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        String sql = "INSERT INTO WasteBins (location, capacity, currentLevel, lastCollected, latitude, longitude) VALUES (?, ?, ?, ?, ?, ?)";
+        try (Connection conn = DatabaseHelper.connect(); PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, bin.location); pstmt.setInt(2, bin.capacity);
-            pstmt.setInt(3, bin.currentLevel); pstmt.setString(4, bin.lastCollected); pstmt.executeUpdate();
+            pstmt.setInt(3, bin.currentLevel); pstmt.setString(4, bin.lastCollected);
+            if (Double.isNaN(bin.latitude)) pstmt.setNull(5, Types.REAL); else pstmt.setDouble(5, bin.latitude);
+            if (Double.isNaN(bin.longitude)) pstmt.setNull(6, Types.REAL); else pstmt.setDouble(6, bin.longitude);
+            pstmt.executeUpdate();
+            ResultSet keys = pstmt.getGeneratedKeys();
+            if (keys.next()) LocationIndex.add(keys.getInt(1), bin.location);
         } catch (SQLException e) { e.printStackTrace(); }
     }
 
@@ -73,22 +273,141 @@ class WasteBinDAO {
         String sql = "DELETE FROM WasteBins WHERE id = ?";
         try (Connection conn = DatabaseHelper.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id); pstmt.executeUpdate();
+            LocationIndex.remove(id);
         } catch (SQLException e) { e.printStackTrace(); }
     }
 
+    // Every match, best first
     List<WasteBin> searchByLocation(String keyword) {
+        return searchByLocation(keyword, Integer.MAX_VALUE);
+    }
+
+    // Ranked matches come from LocationIndex; only the matching rows are read, by primary key
+    List<WasteBin> searchByLocation(String keyword, int limit) {
+        List<Integer> ids = LocationIndex.search(keyword, limit);
         List<WasteBin> bins = new ArrayList<>();
-        String sql = "SELECT * FROM WasteBins WHERE location LIKE ?";
-        try (Connection conn = DatabaseHelper.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, "%" + keyword + "%");
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) bins.add(new WasteBin(rs.getInt("id"), rs.getString("location"),
-                    rs.getInt("capacity"), rs.getInt("currentLevel"), rs.getString("lastCollected")));
+        if (ids.isEmpty()) return bins;
+        Map<Integer, WasteBin> byId = new HashMap<>();
+        try (Connection conn = DatabaseHelper.connect()) {
+            // Chunked so an unbounded search stays under SQLite's host parameter limit
+            for (int from = 0; from < ids.size(); from += 500) {
+                List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + 500));
+                String sql = "SELECT * FROM WasteBins WHERE id IN (" + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) pstmt.setInt(i + 1, chunk.get(i));
+                    ResultSet rs = pstmt.executeQuery();
+                    while (rs.next()) byId.put(rs.getInt("id"), new WasteBin(rs.getInt("id"), rs.getString("location"),
+                            rs.getInt("capacity"), rs.getInt("currentLevel"), rs.getString("lastCollected")));
+                }
+            }
         } catch (SQLException e) { e.printStackTrace(); }
+        for (int id : ids) if (byId.containsKey(id)) bins.add(byId.get(id));
         return bins;
     }
 }
 
+// In-process trigram index over WasteBins.location, loaded once and kept in sync by the DAO
+class LocationIndex {
+    // Sorted ids for one trigram; ids mostly arrive in increasing order so adds are usually appends
+    private static final class Postings {
+        int[] ids = new int[4]; int size;
+        void add(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) return;
+            pos = -pos - 1;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id; size++;
+        }
+        void remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) return;
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+        }
+        boolean contains(int id) { return Arrays.binarySearch(ids, 0, size, id) >= 0; }
+    }
+
+    private static final Map<Long, Postings> trigrams = new HashMap<>();
+    private static final Map<Integer, String> locations = new HashMap<>();
+    private static boolean loaded;
+
+    static synchronized void add(int id, String location) {
+        if (!loaded || location == null) return; // rows committed before the first load are read by load()
+        index(id, location);
+    }
+
+    static synchronized void remove(int id) {
+        if (!loaded) return;
+        String location = locations.remove(id);
+        if (location == null) return;
+        for (long gram : grams(location.toLowerCase(Locale.ROOT))) {
+            Postings p = trigrams.get(gram);
+            if (p != null) { p.remove(id); if (p.size == 0) trigrams.remove(gram); }
+        }
+    }
+
+    // Ids whose location contains keyword (case-insensitive), best matches first:
+    // exact, then prefix, then word-start, then anywhere; shorter locations win ties
+    static synchronized List<Integer> search(String keyword, int limit) {
+        ensureLoaded();
+        String needle = keyword.toLowerCase(Locale.ROOT);
+        List<Integer> candidates = new ArrayList<>();
+        if (needle.length() < 3) {
+            candidates.addAll(locations.keySet());
+        } else {
+            List<Postings> lists = new ArrayList<>();
+            for (long gram : grams(needle)) {
+                Postings p = trigrams.get(gram);
+                if (p == null) return new ArrayList<>();
+                lists.add(p);
+            }
+            lists.sort(Comparator.comparingInt(p -> p.size));
+            Postings smallest = lists.get(0);
+            outer:
+            for (int i = 0; i < smallest.size; i++) {
+                int id = smallest.ids[i];
+                for (int l = 1; l < lists.size(); l++) if (!lists.get(l).contains(id)) continue outer;
+                candidates.add(id);
+            }
+        }
+        List<int[]> ranked = new ArrayList<>();
+        for (int id : candidates) {
+            String location = locations.get(id).toLowerCase(Locale.ROOT);
+            int at = location.indexOf(needle);
+            if (at < 0) continue;
+            int rank = location.length() == needle.length() ? 0 : at == 0 ? 1 : !Character.isLetterOrDigit(location.charAt(at - 1)) ? 2 : 3;
+            ranked.add(new int[]{rank, location.length(), id});
+        }
+        ranked.sort(Comparator.<int[]>comparingInt(r -> r[0]).thenComparingInt(r -> r[1]).thenComparingInt(r -> r[2]));
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < ranked.size() && i < limit; i++) ids.add(ranked.get(i)[2]);
+        return ids;
+    }
+
+    private static void index(int id, String location) {
+        locations.put(id, location);
+        for (long gram : grams(location.toLowerCase(Locale.ROOT))) trigrams.computeIfAbsent(gram, g -> new Postings()).add(id);
+    }
+
+    private static Set<Long> grams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+
+    private static void ensureLoaded() {
+        if (loaded) return;
+        try (Connection conn = DatabaseHelper.connect(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, location FROM WasteBins WHERE location IS NOT NULL")) {
+            while (rs.next()) index(rs.getInt(1), rs.getString(2));
+            loaded = true;
+        } catch (SQLException e) { e.printStackTrace(); }
+    }
+}
+
 // Waste Collection Service with Reports
 class WasteCollectionService {
     void scheduleCollection(int binId, int collectorId, String date) {
@@ -98,32 +417,423 @@ class WasteCollectionService {
         } catch (SQLException e) { e.printStackTrace(); }
     }
 
+    // Plans one route per collector over every located bin at or above thresholdPercent full and
+    // schedules the stops in order; returns the planned routes
+    List<CollectionRoute> planRoutes(int thresholdPercent, String date) {
+        List<Integer> collectors = new ArrayList<>();
+        int[] ids = new int[1024]; double[] lats = new double[1024], lons = new double[1024]; int n = 0;
+        String binSql = "SELECT id, latitude, longitude FROM WasteBins WHERE latitude IS NOT NULL AND longitude IS NOT NULL " +
+                "AND capacity > 0 AND currentLevel * 100 >= capacity * ?";
+        try (Connection conn = DatabaseHelper.connect()) {
+            try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT id FROM Users WHERE role = 'Collector' ORDER BY id")) {
+                while (rs.next()) collectors.add(rs.getInt(1));
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(binSql)) {
+                pstmt.setInt(1, thresholdPercent);
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    if (n == ids.length) {
+                        ids = Arrays.copyOf(ids, n * 2); lats = Arrays.copyOf(lats, n * 2); lons = Arrays.copyOf(lons, n * 2);
+                    }
+                    ids[n] = rs.getInt(1); lats[n] = rs.getDouble(2); lons[n] = rs.getDouble(3); n++;
+                }
+            }
+            if (collectors.isEmpty() || n == 0) return new ArrayList<>();
+            List<CollectionRoute> routes = new RoutePlanner(Arrays.copyOf(ids, n), Arrays.copyOf(lats, n), Arrays.copyOf(lons, n)).plan(collectors);
+            saveRoutes(conn, routes, date);
+            return routes;
+        } catch (SQLException e) { e.printStackTrace(); return new ArrayList<>(); }
+    }
+
+    private void saveRoutes(Connection conn, List<CollectionRoute> routes, String date) throws SQLException {
+        String routeSql = "INSERT INTO CollectionRoutes (collectorId, scheduledDate, distanceKm) VALUES (?, ?, ?)";
+        String stopSql = "INSERT INTO WasteCollection (binId, collectorId, scheduledDate, status, routeId, stopOrder) VALUES (?, ?, ?, 'Scheduled', ?, ?)";
+        conn.setAutoCommit(false);
+        try (PreparedStatement routeStmt = conn.prepareStatement(routeSql, Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement stopStmt = conn.prepareStatement(stopSql)) {
+            for (CollectionRoute route : routes) {
+                if (route.binIds.length == 0) continue;
+                routeStmt.setInt(1, route.collectorId); routeStmt.setString(2, date); routeStmt.setDouble(3, route.distanceKm);
+                routeStmt.executeUpdate();
+                int routeId;
+                try (ResultSet keys = routeStmt.getGeneratedKeys()) { keys.next(); routeId = keys.getInt(1); }
+                for (int i = 0; i < route.binIds.length; i++) {
+                    stopStmt.setInt(1, route.binIds[i]); stopStmt.setInt(2, route.collectorId); stopStmt.setString(3, date);
+                    stopStmt.setInt(4, routeId); stopStmt.setInt(5, i);
+                    stopStmt.addBatch();
+                }
+                stopStmt.executeBatch();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+    }
+
     void generateCollectionReport() {
-        String sql = "SELECT * FROM WasteCollection";
-        try (Connection conn = DatabaseHelper.connect(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                System.out.println("Bin ID: " + rs.getInt("binId") + ", Collector ID: " + rs.getInt("collectorId") +
-                        ", Date: " + rs.getString("scheduledDate") + ", Status: " + rs.getString("status"));
+        streamCollectionReport(null, null, null, 1000, (id, binId, collectorId, date, status) ->
+                System.out.println("Bin ID: " + binId + ", Collector ID: " + collectorId + ", Date: " + date + ", Status: " + status));
+    }
+
+    // Streams WasteCollection rows ordered by (scheduledDate, id) one keyset page at a time, so memory stays
+    // bounded by pageSize however long the history is. status/fromDate/toDate are optional (null = no filter);
+    // rows without a scheduledDate are not reported. Returns the number of rows written.
+    long streamCollectionReport(String status, String fromDate, String toDate, int pageSize, CollectionReportSink sink) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        String sql = "SELECT id, binId, collectorId, scheduledDate, status FROM WasteCollection WHERE " +
+                (status != null ? "status = ? AND " : "") +
+                // The redundant "scheduledDate >= ?" gives the index a lower bound, so each page starts with a seek
+                "scheduledDate >= ? AND scheduledDate <= ? AND (scheduledDate > ? OR (scheduledDate = ? AND id > ?)) " +
+                "ORDER BY scheduledDate, id LIMIT ?";
+        String lastDate = fromDate == null ? "" : fromDate;
+        int lastId = fromDate == null ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+        long written = 0;
+        try (Connection conn = DatabaseHelper.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            while (true) {
+                int p = 1;
+                if (status != null) pstmt.setString(p++, status);
+                pstmt.setString(p++, lastDate);
+                pstmt.setString(p++, toDate == null ? "\uffff" : toDate);
+                pstmt.setString(p++, lastDate); pstmt.setString(p++, lastDate); pstmt.setInt(p++, lastId);
+                pstmt.setInt(p, pageSize);
+                int rows = 0;
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        lastId = rs.getInt(1); lastDate = rs.getString(4);
+                        sink.row(lastId, rs.getInt(2), rs.getInt(3), lastDate, rs.getString(5));
+                        rows++;
+                    }
+                }
+                written += rows;
+                if (rows < pageSize) break;
             }
-        } catch (SQLException e) { e.printStackTrace(); }
+            sink.finish();
+        } catch (SQLException | IOException e) { e.printStackTrace(); }
+        return written;
+    }
+}
+
+// Receives report rows in (scheduledDate, id) order
+interface CollectionReportSink {
+    void row(int id, int binId, int collectorId, String scheduledDate, String status) throws IOException;
+    default void finish() throws IOException {}
+}
+
+class CsvReportSink implements CollectionReportSink {
+    private final Writer out;
+    CsvReportSink(Writer out) throws IOException {
+        this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out, 1 << 16);
+        this.out.write("id,binId,collectorId,scheduledDate,status\n");
+    }
+    public void row(int id, int binId, int collectorId, String scheduledDate, String status) throws IOException {
+        out.write(Integer.toString(id)); out.write(','); out.write(Integer.toString(binId)); out.write(',');
+        out.write(Integer.toString(collectorId)); out.write(','); out.write(escape(scheduledDate)); out.write(',');
+        out.write(escape(status)); out.write('\n');
+    }
+    public void finish() throws IOException { out.flush(); }
+    private static String escape(String v) {
+        if (v == null) return "";
+        return v.indexOf(',') < 0 && v.indexOf('"') < 0 && v.indexOf('\n') < 0 ? v : '"' + v.replace("\"", "\"\"") + '"';
+    }
+}
+
+// Writes a JSON array incrementally; the closing bracket is emitted by finish()
+class JsonReportSink implements CollectionReportSink {
+    private final Writer out;
+    private boolean first = true;
+    JsonReportSink(Writer out) throws IOException {
+        this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out, 1 << 16);
+        this.out.write('[');
+    }
+    public void row(int id, int binId, int collectorId, String scheduledDate, String status) throws IOException {
+        if (!first) out.write(',');
+        first = false;
+        out.write("\n{\"id\":" + id + ",\"binId\":" + binId + ",\"collectorId\":" + collectorId +
+                ",\"scheduledDate\":" + quote(scheduledDate) + ",\"status\":" + quote(status) + "}");
+    }
+    public void finish() throws IOException { out.write("\n]\n"); out.flush(); }
+    private static String quote(String v) {
+        if (v == null) return "null";
+        StringBuilder sb = new StringBuilder(v.length() + 2).append('"');
+        for (char c : v.toCharArray()) {
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.append('"').toString();
+    }
+}
+
+// Route Planning
+// Planned route for one collector: bins in visiting order and the path length in km
+class CollectionRoute {
+    final int collectorId;
+    final int[] binIds;
+    final double distanceKm;
+
+    CollectionRoute(int collectorId, int[] binIds, double distanceKm) {
+        this.collectorId = collectorId; this.binIds = binIds; this.distanceKm = distanceKm;
+    }
+}
+
+// Route planning: bins above a fill threshold are bucketed into a uniform grid, grid cells are cut
+// into one region per collector along a Morton (Z-order) curve, and each region is routed in
+// parallel with grid-accelerated nearest-neighbour followed by windowed 2-opt.
+class RoutePlanner {
+    private static final double CELL_KM = 0.5;
+    private static final int TWO_OPT_WINDOW = 400;
+    private static final int TWO_OPT_PASSES = 8;
+
+    private final int[] ids;
+    private final double[] x, y; // equirectangular projection in km
+
+    RoutePlanner(int[] ids, double[] latitudes, double[] longitudes) {
+        this.ids = ids;
+        this.x = new double[ids.length];
+        this.y = new double[ids.length];
+        double meanLat = 0;
+        for (double lat : latitudes) meanLat += lat / Math.max(1, latitudes.length);
+        double kmPerLon = 111.32 * Math.cos(Math.toRadians(meanLat));
+        for (int i = 0; i < ids.length; i++) {
+            x[i] = longitudes[i] * kmPerLon;
+            y[i] = latitudes[i] * 110.574;
+        }
+    }
+
+    List<CollectionRoute> plan(List<Integer> collectorIds) {
+        List<int[]> regions = splitRegions(collectorIds.size());
+        return IntStream.range(0, regions.size()).parallel()
+                .mapToObj(r -> route(collectorIds.get(r), regions.get(r)))
+                .collect(Collectors.toList());
+    }
+
+    // Groups bins by grid cell, orders cells along a Z-curve and cuts that order into equal-count regions
+    private List<int[]> splitRegions(int count) {
+        Map<Long, List<Integer>> cells = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            cells.computeIfAbsent(morton(cell(x[i]), cell(y[i])), k -> new ArrayList<>()).add(i);
+        }
+        List<Long> order = new ArrayList<>(cells.keySet());
+        Collections.sort(order);
+        List<int[]> regions = new ArrayList<>();
+        int perRegion = (ids.length + count - 1) / Math.max(1, count);
+        List<Integer> current = new ArrayList<>();
+        for (long key : order) {
+            current.addAll(cells.get(key));
+            if (current.size() >= perRegion && regions.size() < count - 1) {
+                regions.add(current.stream().mapToInt(Integer::intValue).toArray());
+                current = new ArrayList<>();
+            }
+        }
+        regions.add(current.stream().mapToInt(Integer::intValue).toArray());
+        while (regions.size() < count) regions.add(new int[0]);
+        return regions;
+    }
+
+    private CollectionRoute route(int collectorId, int[] points) {
+        int[] tour = nearestNeighbour(points);
+        twoOpt(tour);
+        double length = 0;
+        int[] binIds = new int[tour.length];
+        for (int i = 0; i < tour.length; i++) {
+            binIds[i] = ids[tour[i]];
+            if (i > 0) length += dist(tour[i - 1], tour[i]);
+        }
+        return new CollectionRoute(collectorId, binIds, length);
+    }
+
+    // Starts at the westernmost bin and repeatedly jumps to the closest unvisited one, searching grid rings outward
+    private int[] nearestNeighbour(int[] points) {
+        if (points.length == 0) return points;
+        Map<Long, List<Integer>> grid = new HashMap<>();
+        int start = points[0];
+        for (int p : points) {
+            grid.computeIfAbsent(key(cell(x[p]), cell(y[p])), k -> new ArrayList<>()).add(p);
+            if (x[p] < x[start]) start = p;
+        }
+        int[] tour = new int[points.length];
+        int current = start;
+        remove(grid, current);
+        tour[0] = current;
+        for (int n = 1; n < points.length; n++) {
+            int cx = cell(x[current]), cy = cell(y[current]);
+            int best = -1;
+            double bestDist = Double.MAX_VALUE;
+            for (int ring = 0; best < 0 || (ring - 1) * CELL_KM < bestDist; ring++) {
+                if (best < 0 && ring > 64) {
+                    // Only far-away stragglers left; a linear scan beats walking empty rings
+                    for (List<Integer> cell : grid.values()) {
+                        for (int p : cell) {
+                            double d = dist(current, p);
+                            if (d < bestDist) { bestDist = d; best = p; }
+                        }
+                    }
+                    break;
+                }
+                for (int dx = -ring; dx <= ring; dx++) {
+                    for (int dy = -ring; dy <= ring; dy++) {
+                        if (Math.max(Math.abs(dx), Math.abs(dy)) != ring) continue;
+                        List<Integer> cell = grid.get(key(cx + dx, cy + dy));
+                        if (cell == null) continue;
+                        for (int p : cell) {
+                            double d = dist(current, p);
+                            if (d < bestDist) { bestDist = d; best = p; }
+                        }
+                    }
+                }
+            }
+            remove(grid, best);
+            tour[n] = current = best;
+        }
+        return tour;
+    }
+
+    // Open-path 2-opt limited to a window of positions ahead, so each pass stays near-linear in route length
+    private void twoOpt(int[] tour) {
+        int n = tour.length;
+        for (int pass = 0; pass < TWO_OPT_PASSES; pass++) {
+            boolean improved = false;
+            for (int i = 0; i < n - 2; i++) {
+                int a = tour[i], b = tour[i + 1];
+                double ab = dist(a, b);
+                for (int j = i + 2, end = Math.min(n - 1, i + TWO_OPT_WINDOW); j <= end; j++) {
+                    int c = tour[j];
+                    double delta = dist(a, c) - ab;
+                    if (j + 1 < n) delta += dist(b, tour[j + 1]) - dist(c, tour[j + 1]);
+                    if (delta < -1e-9) {
+                        for (int l = i + 1, r = j; l < r; l++, r--) {
+                            int t = tour[l]; tour[l] = tour[r]; tour[r] = t;
+                        }
+                        b = tour[i + 1];
+                        ab = dist(a, b);
+                        improved = true;
+                    }
+                }
+            }
+            if (!improved) break;
+        }
+    }
+
+    private double dist(int a, int b) {
+        double dx = x[a] - x[b], dy = y[a] - y[b];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private void remove(Map<Long, List<Integer>> grid, int p) {
+        grid.get(key(cell(x[p]), cell(y[p]))).remove((Integer) p);
+    }
+
+    private static int cell(double km) { return (int) Math.floor(km / CELL_KM); }
+
+    private static long key(int cx, int cy) { return ((long) cx << 32) | (cy & 0xFFFFFFFFL); }
+
+    // Interleaves the bits of the (offset) cell coordinates so nearby cells sort next to each other
+    private static long morton(int cx, int cy) {
+        long result = 0;
+        long ux = cx + (1L << 31), uy = cy + (1L << 31);
+        for (int bit = 0; bit < 32; bit++) {
+            result |= ((ux >> bit) & 1L) << (2 * bit) | ((uy >> bit) & 1L) << (2 * bit + 1);
+        }
+        return result;
     }
 }
 
 // Recyclable Service with Deletion
 class RecyclableService {
+    // Rollup tables from coarsest to finest; every row is counted once in each
+    private static final String[] ROLLUPS = {"RecyclablesMonthly", "RecyclablesDaily", "RecyclablesHourly"};
+
     void addRecyclable(String type, int quantity, int binId) {
-        String sql = "INSERT INTO Recyclables (type, quantity, binId) VALUES (?, ?, ?)";
-        try (Connection conn = DatabaseHelper.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, type); pstmt.setInt(2, quantity); pstmt.setInt(3, binId); pstmt.executeUpdate();
+        String sql = "INSERT INTO Recyclables (type, quantity, binId, recordedAt) VALUES (?, ?, ?, ?)";
+        long now = Instant.now().getEpochSecond();
+        try (Connection conn = DatabaseHelper.connect()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, type); pstmt.setInt(2, quantity); pstmt.setInt(3, binId); pstmt.setLong(4, now); pstmt.executeUpdate();
+                applyToRollups(conn, type, binId, now, quantity);
+                conn.commit();
+            } catch (SQLException e) { conn.rollback(); throw e; }
         } catch (SQLException e) { e.printStackTrace(); }
     }
 
     void deleteRecyclable(int id) {
         String sql = "DELETE FROM Recyclables WHERE id = ?";
-        try (Connection conn = DatabaseHelper.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, id); pstmt.executeUpdate();
+        try (Connection conn = DatabaseHelper.connect()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement select = conn.prepareStatement("SELECT type, quantity, binId, recordedAt FROM Recyclables WHERE id = ?");
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                select.setInt(1, id);
+                ResultSet rs = select.executeQuery();
+                if (rs.next() && rs.getObject(4) != null) applyToRollups(conn, rs.getString(1), rs.getInt(3), rs.getLong(4), -rs.getInt(2));
+                pstmt.setInt(1, id); pstmt.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) { conn.rollback(); throw e; }
         } catch (SQLException e) { e.printStackTrace(); }
     }
+
+    private static void applyToRollups(Connection conn, String type, int binId, long epochSecond, int delta) throws SQLException {
+        for (String table : ROLLUPS) {
+            String sql = "INSERT INTO " + table + " (bucket, type, binId, quantity) VALUES (?, ?, ?, ?) " +
+                    "ON CONFLICT(bucket, type, binId) DO UPDATE SET quantity = quantity + excluded.quantity";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setLong(1, bucketStart(table, epochSecond)); pstmt.setString(2, type); pstmt.setInt(3, binId); pstmt.setInt(4, delta);
+                pstmt.executeUpdate();
+            }
+        }
+    }
+
+    // Quantity per type recorded in [from, to), both truncated to whole hours (UTC). The range is covered with
+    // the coarsest buckets that fit: whole months in the middle, days and hours only at the ragged edges.
+    Map<String, Long> quantityByType(Instant from, Instant to) {
+        Map<String, Long> totals = new TreeMap<>();
+        long start = bucketStart("RecyclablesHourly", from.getEpochSecond());
+        long end = bucketStart("RecyclablesHourly", to.getEpochSecond());
+        try (Connection conn = DatabaseHelper.connect()) {
+            sumRange(conn, 0, start, end, totals);
+        } catch (SQLException e) { e.printStackTrace(); }
+        return totals;
+    }
+
+    // Sums [start, end) from ROLLUPS[level], recursing to finer tables for the parts not aligned to its buckets
+    private void sumRange(Connection conn, int level, long start, long end, Map<String, Long> totals) throws SQLException {
+        if (start >= end) return;
+        String table = ROLLUPS[level];
+        if (level == ROLLUPS.length - 1) { sumBuckets(conn, table, start, end, totals); return; }
+        long alignedStart = bucketStart(table, start) == start ? start : nextBucket(table, start);
+        long alignedEnd = bucketStart(table, end);
+        if (alignedStart >= alignedEnd) { sumRange(conn, level + 1, start, end, totals); return; }
+        sumRange(conn, level + 1, start, alignedStart, totals);
+        sumBuckets(conn, table, alignedStart, alignedEnd, totals);
+        sumRange(conn, level + 1, alignedEnd, end, totals);
+    }
+
+    private static void sumBuckets(Connection conn, String table, long start, long end, Map<String, Long> totals) throws SQLException {
+        String sql = "SELECT type, SUM(quantity) FROM " + table + " WHERE bucket >= ? AND bucket < ? GROUP BY type";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, start); pstmt.setLong(2, end);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) totals.merge(rs.getString(1), rs.getLong(2), Long::sum);
+        }
+    }
+
+    static long bucketStart(String table, long epochSecond) {
+        LocalDateTime t = LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+        switch (table) {
+            case "RecyclablesMonthly": t = t.toLocalDate().withDayOfMonth(1).atStartOfDay(); break;
+            case "RecyclablesDaily": t = t.toLocalDate().atStartOfDay(); break;
+            default: t = t.truncatedTo(ChronoUnit.HOURS);
+        }
+        return t.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long nextBucket(String table, long bucketStart) {
+        LocalDateTime t = LocalDateTime.ofEpochSecond(bucketStart(table, bucketStart), 0, ZoneOffset.UTC);
+        t = table.equals("RecyclablesMonthly") ? t.plusMonths(1) : table.equals("RecyclablesDaily") ? t.plusDays(1) : t.plusHours(1);
+        return t.toEpochSecond(ZoneOffset.UTC);
+    }
 }
 
 // Main Class
@@ -1,6 +1,14 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 class DatabaseManager {
     private static final String URL = "jdbc:sqlite:waste_management.db";
@@ -22,19 +30,62 @@ class DatabaseManager {
     public static void insertBin(String location, int fillLevel, String category) {
         String sql = "INSERT INTO WasteBin (location, fillLevel, category) VALUES (?, ?, ?)";
         try (Connection conn = DriverManager.getConnection(URL);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, location);
             pstmt.setInt(2, fillLevel);
             pstmt.setString(3, category);
             pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    FillLevelIndex.update(keys.getInt(1), location, fillLevel, category);
+                }
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    // Writes the latest reading per bin in one transaction. Only registered bins are updated; readings for
+    // unknown ids are ignored so stray datagrams cannot create bins. Returns how many readings were ignored.
+    public static int updateFillLevels(int[] binIds, int[] fillLevels, int count) {
+        String sql = "UPDATE WasteBin SET fillLevel = ? WHERE id = ?";
+        int rejected = 0;
+        try (Connection conn = DriverManager.getConnection(URL)) {
+            conn.setAutoCommit(false);
+            int[] updated;
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < count; i++) {
+                    pstmt.setInt(1, fillLevels[i]);
+                    pstmt.setInt(2, binIds[i]);
+                    pstmt.addBatch();
+                }
+                updated = pstmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            for (int i = 0; i < count; i++) {
+                if (updated[i] > 0) {
+                    FillLevelIndex.update(binIds[i], null, fillLevels[i], null);
+                } else {
+                    rejected++;
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return rejected;
+    }
+
+    // Served from the in-memory index; the table is only scanned once, by loadAllBins
     public static List<WasteBin> getFullBins() {
+        return FillLevelIndex.binsAtLeast(100);
+    }
+
+    static List<WasteBin> loadAllBins() {
         List<WasteBin> bins = new ArrayList<>();
-        String sql = "SELECT * FROM WasteBin WHERE fillLevel >= 100";
+        String sql = "SELECT * FROM WasteBin";
         try (Connection conn = DriverManager.getConnection(URL);
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
@@ -61,18 +112,507 @@ class WasteBin {
         this.category = category;
     }
     
+    public int getId() { return id; }
     public int getFillLevel() { return fillLevel; }
     public String getLocation() { return location; }
     public String getCategory() { return category; }
 }
 
 class WasteCollector {
-    public static void notifyCollectors() {
-        List<WasteBin> fullBins = DatabaseManager.getFullBins();
-        for (WasteBin bin : fullBins) {
-            System.out.println("Collector Alert: Bin at " + bin.getLocation() + " is full (" + bin.getCategory() + ")");
+    private static final AlertDispatcher dispatcher = new AlertDispatcher(256, 5, 200);
+    private static AutoCloseable subscription;
+
+    public static void registerCollector(int collectorId, CollectorNotifier notifier, double alertsPerSecond) {
+        dispatcher.register(collectorId, notifier, alertsPerSecond, 8);
+    }
+
+    // Subscribes once; bins already full are reported immediately, later ones as soon as they are written.
+    // A bin must drop below 90 before it can alert again. Without registered collectors alerts go to stdout.
+    public static synchronized void notifyCollectors() {
+        if (subscription == null) {
+            if (dispatcher.channelCount() == 0) {
+                registerCollector(0, (collectorId, bin) ->
+                        System.out.println("Collector Alert: Bin at " + bin.getLocation() + " is full (" + bin.getCategory() + ")"), 50);
+            }
+            subscription = FillLevelIndex.subscribe(100, 90, dispatcher::dispatch);
         }
     }
+
+    // Waits for in-flight alerts (including retries) to finish
+    public static void shutdown() throws InterruptedException {
+        dispatcher.shutdown(30, TimeUnit.SECONDS);
+    }
+}
+
+// Downstream channel for one collector (SMS gateway, pager, ...); may be slow and may throw
+interface CollectorNotifier {
+    void send(int collectorId, WasteBin bin) throws Exception;
+}
+
+// Fans alerts out to every registered collector on one thread per delivery (virtual threads when the
+// runtime has them). Each collector has its own token-bucket rate limit and concurrency cap, so a slow
+// channel only ever holds its own permits; a global semaphore bounds total in-flight deliveries.
+class AlertDispatcher {
+    private static final int BACKLOG = 4096;
+
+    private static final class Channel {
+        final int collectorId;
+        final CollectorNotifier notifier;
+        final Semaphore inFlight;
+        final BlockingQueue<WasteBin> backlog = new ArrayBlockingQueue<>(BACKLOG);
+        final double ratePerSecond;
+        double tokens;
+        long lastRefill = System.nanoTime();
+
+        Channel(int collectorId, CollectorNotifier notifier, double ratePerSecond, int maxInFlight) {
+            this.collectorId = collectorId;
+            this.notifier = notifier;
+            this.ratePerSecond = ratePerSecond;
+            this.tokens = ratePerSecond;
+            this.inFlight = new Semaphore(maxInFlight);
+        }
+
+        // Nanoseconds to wait before a token is available, reserving it; 0 if one is available now
+        synchronized long reserve() {
+            long now = System.nanoTime();
+            tokens = Math.min(ratePerSecond, tokens + (now - lastRefill) * ratePerSecond / 1e9);
+            lastRefill = now;
+            tokens -= 1;
+            return tokens >= 0 ? 0 : (long) (-tokens * 1e9 / ratePerSecond);
+        }
+    }
+
+    private final Map<Integer, Channel> channels = new ConcurrentHashMap<>();
+    private final ExecutorService executor = newPerTaskExecutor();
+    private final Semaphore globalInFlight;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    AlertDispatcher(int maxConcurrent, int maxAttempts, long baseBackoffMillis) {
+        this.globalInFlight = new Semaphore(maxConcurrent);
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+    }
+
+    void register(int collectorId, CollectorNotifier notifier, double ratePerSecond, int maxInFlight) {
+        channels.put(collectorId, new Channel(collectorId, notifier, ratePerSecond, maxInFlight));
+    }
+
+    // Alerts wait in each collector's bounded backlog and a task is only started while the collector has a
+    // free in-flight permit, so running tasks never exceed the sum of maxInFlight whatever the executor is
+    void dispatch(WasteBin bin) {
+        for (Channel channel : channels.values()) {
+            if (!channel.backlog.offer(bin)) {
+                dropped.incrementAndGet();
+                continue;
+            }
+            if (channel.inFlight.tryAcquire()) {
+                try {
+                    executor.execute(() -> drain(channel));
+                } catch (RejectedExecutionException e) {
+                    // Shut down: nothing will deliver what is still waiting
+                    channel.inFlight.release();
+                    for (WasteBin waiting; (waiting = channel.backlog.poll()) != null; ) {
+                        dropped.incrementAndGet();
+                    }
+                }
+            }
+        }
+    }
+
+    int channelCount() { return channels.size(); }
+    long deliveredCount() { return delivered.get(); }
+    long failedCount() { return failed.get(); }
+    long droppedCount() { return dropped.get(); }
+
+    // Holds one of the channel's permits; keeps delivering until the backlog is empty
+    private void drain(Channel channel) {
+        while (true) {
+            WasteBin bin = channel.backlog.poll();
+            if (bin == null) {
+                channel.inFlight.release();
+                // An alert queued after the poll but before the release may have found no permit
+                if (channel.backlog.isEmpty() || !channel.inFlight.tryAcquire()) {
+                    return;
+                }
+                continue;
+            }
+            deliver(channel, bin);
+            if (Thread.currentThread().isInterrupted()) {
+                channel.inFlight.release();
+                return;
+            }
+        }
+    }
+
+    private void deliver(Channel channel, WasteBin bin) {
+        try {
+            for (int attempt = 1; ; attempt++) {
+                long wait = channel.reserve();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                globalInFlight.acquire();
+                try {
+                    channel.notifier.send(channel.collectorId, bin);
+                    delivered.incrementAndGet();
+                    return;
+                } catch (Exception e) {
+                    if (attempt >= maxAttempts) {
+                        failed.incrementAndGet();
+                        System.out.println("Alert for bin " + bin.getId() + " to collector " + channel.collectorId + " failed: " + e.getMessage());
+                        return;
+                    }
+                } finally {
+                    globalInFlight.release();
+                }
+                // Exponential backoff with full jitter so retries from many bins do not line up
+                long cap = baseBackoffMillis << Math.min(attempt - 1, 16);
+                Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(timeout, unit);
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() on JDK 21+, a cached platform pool otherwise;
+    // either way dispatch() caps the number of live tasks through the per-collector permits
+    private static ExecutorService newPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "collector-alert");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
+
+interface FullBinListener {
+    void onFull(WasteBin bin);
+}
+
+// In-memory fill levels grouped into 10-point bands (the last band holds everything >= 100).
+// Loaded once from WasteBin and updated by every DatabaseManager write, so full-bin queries and
+// threshold alerts never touch the table.
+class FillLevelIndex {
+    private static final int FULL_BAND = 10;
+
+    private static final class BinState {
+        String location, category;
+        int fillLevel;
+    }
+
+    // Fires when a bin reaches threshold; re-arms only after it drops below rearmBelow
+    private static final class Subscription {
+        final int threshold, rearmBelow;
+        final FullBinListener listener;
+        final Set<Integer> alerted = new HashSet<>();
+
+        Subscription(int threshold, int rearmBelow, FullBinListener listener) {
+            this.threshold = threshold;
+            this.rearmBelow = rearmBelow;
+            this.listener = listener;
+        }
+    }
+
+    private static final Map<Integer, BinState> bins = new HashMap<>();
+    private static final List<Set<Integer>> bands = new ArrayList<>();
+    private static final List<Subscription> subscriptions = new ArrayList<>();
+    private static boolean loaded;
+
+    static {
+        for (int i = 0; i <= FULL_BAND; i++) {
+            bands.add(new HashSet<>());
+        }
+    }
+
+    public static AutoCloseable subscribe(int threshold, int rearmBelow, FullBinListener listener) {
+        if (rearmBelow > threshold) {
+            throw new IllegalArgumentException("rearmBelow must not exceed threshold");
+        }
+        Subscription sub = new Subscription(threshold, rearmBelow, listener);
+        List<WasteBin> alreadyFull;
+        synchronized (FillLevelIndex.class) {
+            ensureLoaded();
+            alreadyFull = binsAtLeast(threshold);
+            for (WasteBin bin : alreadyFull) {
+                sub.alerted.add(bin.getId());
+            }
+            subscriptions.add(sub);
+        }
+        alreadyFull.forEach(listener::onFull);
+        return () -> {
+            synchronized (FillLevelIndex.class) {
+                subscriptions.remove(sub);
+            }
+        };
+    }
+
+    public static synchronized List<WasteBin> binsAtLeast(int fillLevel) {
+        ensureLoaded();
+        List<WasteBin> result = new ArrayList<>();
+        for (int band = band(fillLevel); band <= FULL_BAND; band++) {
+            for (int id : bands.get(band)) {
+                BinState state = bins.get(id);
+                if (state.fillLevel >= fillLevel) {
+                    result.add(new WasteBin(id, state.location, state.fillLevel, state.category));
+                }
+            }
+        }
+        return result;
+    }
+
+    // Applies a committed write; null location/category keep what the index already knows
+    static void update(int binId, String location, int fillLevel, String category) {
+        List<Runnable> events = new ArrayList<>();
+        synchronized (FillLevelIndex.class) {
+            if (!loaded) {
+                return; // the committed row is picked up when the index is first loaded
+            }
+            BinState state = bins.get(binId);
+            if (state == null) {
+                state = new BinState();
+                bins.put(binId, state);
+            } else {
+                bands.get(band(state.fillLevel)).remove(binId);
+            }
+            if (location != null) state.location = location;
+            if (category != null) state.category = category;
+            state.fillLevel = fillLevel;
+            bands.get(band(fillLevel)).add(binId);
+            WasteBin snapshot = new WasteBin(binId, state.location, fillLevel, state.category);
+            for (Subscription sub : subscriptions) {
+                if (fillLevel >= sub.threshold) {
+                    if (sub.alerted.add(binId)) {
+                        events.add(() -> sub.listener.onFull(snapshot));
+                    }
+                } else if (fillLevel < sub.rearmBelow) {
+                    sub.alerted.remove(binId);
+                }
+            }
+        }
+        events.forEach(Runnable::run);
+    }
+
+    private static int band(int fillLevel) {
+        return Math.max(0, Math.min(FULL_BAND, fillLevel / 10));
+    }
+
+    private static void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        for (WasteBin bin : DatabaseManager.loadAllBins()) {
+            update(bin.getId(), bin.getLocation(), bin.getFillLevel(), bin.getCategory());
+        }
+    }
+}
+
+interface FillLevelSink {
+    void accept(int binId, int fillLevel);
+}
+
+// Bounded lock-free multi-producer ring of packed (binId, fillLevel) readings, after Vyukov's MPMC queue
+class FillLevelRing {
+    private final long[] readings;
+    private final AtomicLongArray sequence;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // only touched by the single draining thread
+
+    FillLevelRing(int capacityPowerOfTwo) {
+        if (Integer.bitCount(capacityPowerOfTwo) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two");
+        }
+        readings = new long[capacityPowerOfTwo];
+        sequence = new AtomicLongArray(capacityPowerOfTwo);
+        mask = capacityPowerOfTwo - 1;
+        for (int i = 0; i < capacityPowerOfTwo; i++) {
+            sequence.set(i, i);
+        }
+    }
+
+    // Returns false instead of blocking when the ring is full
+    boolean offer(int binId, int fillLevel) {
+        long pos = tail.get();
+        while (true) {
+            int slot = (int) pos & mask;
+            long diff = sequence.get(slot) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    readings[slot] = ((long) binId << 32) | (fillLevel & 0xFFFFFFFFL);
+                    sequence.set(slot, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    // Single consumer: hands every published reading to the sink and frees its slot
+    int drain(FillLevelSink sink) {
+        int drained = 0;
+        while (true) {
+            int slot = (int) head & mask;
+            if (sequence.get(slot) != head + 1) {
+                return drained;
+            }
+            long packed = readings[slot];
+            sequence.set(slot, head + mask + 1);
+            head++;
+            sink.accept((int) (packed >>> 32), (int) packed);
+            drained++;
+        }
+    }
+}
+
+// Receives sensor datagrams of 8-byte big-endian (binId, fillLevel) records, keeps only the latest level
+// per bin and periodically writes those to the registered WasteBin rows in one batched transaction.
+class SensorIngestion implements AutoCloseable {
+    private final FillLevelRing ring = new FillLevelRing(1 << 18);
+    private final DatagramChannel channel;
+    private final Thread receiver;
+    private final ScheduledExecutorService flusher;
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile boolean running = true;
+
+    // Latest fill level per bin since the last flush; open addressing, used by the flusher thread only
+    private int[] binIds = new int[1 << 16];
+    private int[] levels = new int[1 << 16];
+    private boolean[] used = new boolean[1 << 16];
+    private int pending;
+
+    public SensorIngestion(int port, long flushMillis) throws IOException {
+        channel = DatagramChannel.open().bind(new InetSocketAddress(port));
+        receiver = new Thread(this::receive, "bin-sensor-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "bin-sensor-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public SocketAddress localAddress() throws IOException {
+        return channel.getLocalAddress();
+    }
+
+    // In-process producers (tests, other gateways) share the same path as the network receiver
+    public boolean submit(int binId, int fillLevel) {
+        received.incrementAndGet();
+        if (ring.offer(binId, fillLevel)) {
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    public long receivedCount() { return received.get(); }
+    public long droppedCount() { return dropped.get(); }
+    public long rejectedCount() { return rejected.get(); }
+
+    private void receive() {
+        ByteBuffer buf = ByteBuffer.allocateDirect(65_536);
+        while (running) {
+            try {
+                buf.clear();
+                channel.receive(buf);
+                buf.flip();
+                while (buf.remaining() >= 8) {
+                    submit(buf.getInt(), buf.getInt());
+                }
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private synchronized void flush() {
+        ring.drain(this::merge);
+        if (pending == 0) {
+            return;
+        }
+        int[] ids = new int[pending];
+        int[] values = new int[pending];
+        int n = 0;
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) {
+                ids[n] = binIds[i];
+                values[n++] = levels[i];
+                used[i] = false;
+            }
+        }
+        pending = 0;
+        rejected.addAndGet(DatabaseManager.updateFillLevels(ids, values, n));
+    }
+
+    private void merge(int binId, int fillLevel) {
+        int mask = used.length - 1;
+        int h = binId * 0x9E3779B9;
+        int i = (h ^ (h >>> 16)) & mask;
+        while (used[i] && binIds[i] != binId) {
+            i = (i + 1) & mask;
+        }
+        if (!used[i]) {
+            used[i] = true;
+            binIds[i] = binId;
+            pending++;
+        }
+        levels[i] = fillLevel;
+        if (pending * 4 > used.length * 3) {
+            grow();
+        }
+    }
+
+    private void grow() {
+        int[] oldIds = binIds, oldLevels = levels;
+        boolean[] oldUsed = used;
+        binIds = new int[oldIds.length * 2];
+        levels = new int[oldIds.length * 2];
+        used = new boolean[oldIds.length * 2];
+        pending = 0;
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                merge(oldIds[i], oldLevels[i]);
+            }
+        }
+    }
+
+    // Stops receiving and writes out whatever is still buffered
+    @Override
+    public void close() throws IOException {
+        running = false;
+        channel.close();
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
 }
 
 public class SmartWasteSystem {
@@ -82,5 +622,10 @@ public class SmartWasteSystem {
         DatabaseManager.insertBin("Industrial Zone", 120, "Hazardous");
         
         WasteCollector.notifyCollectors();
+        try {
+            WasteCollector.shutdown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 }
@@ -1,11 +1,27 @@
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
 
 class Student {
     int id;
     String name;
     int age;
     double grade;
-    boolean attendance;
+    volatile boolean attendance;
 
     Student(int id, String name, int age, double grade) {
         this.id = id;
@@ -16,8 +32,692 @@ class Student {
     }
 }
 
+// Order-statistic treap over (grade desc, id asc); every node knows its subtree size
+class GradeRanking {
+    private static final class Node {
+        final double grade;
+        final int id;
+        final int priority;
+        int size = 1;
+        Node left, right;
+
+        Node(double grade, int id, int priority) {
+            this.grade = grade;
+            this.id = id;
+            this.priority = priority;
+        }
+    }
+
+    private final Random random = new Random();
+    private Node root;
+
+    int size() {
+        return size(root);
+    }
+
+    void add(double grade, int id) {
+        Node[] parts = split(root, grade, id);
+        root = merge(merge(parts[0], new Node(grade, id, random.nextInt())), parts[1]);
+    }
+
+    void remove(double grade, int id) {
+        root = remove(root, grade, id);
+    }
+
+    // Number of entries ordered before (grade, id), whether or not that entry itself is present
+    int countBefore(double grade, int id) {
+        int before = 0;
+        Node n = root;
+        while (n != null) {
+            int c = compare(grade, id, n);
+            if (c == 0) {
+                return before + size(n.left);
+            } else if (c < 0) {
+                n = n.left;
+            } else {
+                before += size(n.left) + 1;
+                n = n.right;
+            }
+        }
+        return before;
+    }
+
+    // Ids of the k best students, best first
+    List<Integer> top(int k) {
+        List<Integer> result = new ArrayList<>(Math.min(k, size()));
+        collect(root, k, result);
+        return result;
+    }
+
+    private void collect(Node n, int k, List<Integer> out) {
+        if (n == null || out.size() >= k) return;
+        collect(n.left, k, out);
+        if (out.size() < k) out.add(n.id);
+        collect(n.right, k, out);
+    }
+
+    private static int compare(double grade, int id, Node n) {
+        int c = Double.compare(n.grade, grade);
+        return c != 0 ? c : Integer.compare(id, n.id);
+    }
+
+    private static int size(Node n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static Node update(Node n) {
+        n.size = size(n.left) + size(n.right) + 1;
+        return n;
+    }
+
+    // Splits into nodes ordered before (grade, id) and the rest
+    private static Node[] split(Node n, double grade, int id) {
+        if (n == null) return new Node[2];
+        if (compare(grade, id, n) > 0) {
+            Node[] parts = split(n.right, grade, id);
+            n.right = parts[0];
+            parts[0] = update(n);
+            return parts;
+        }
+        Node[] parts = split(n.left, grade, id);
+        n.left = parts[1];
+        parts[1] = update(n);
+        return parts;
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            return update(a);
+        }
+        b.left = merge(a, b.left);
+        return update(b);
+    }
+
+    private static Node remove(Node n, double grade, int id) {
+        if (n == null) return null;
+        int c = compare(grade, id, n);
+        if (c == 0) return merge(n.left, n.right);
+        if (c < 0) n.left = remove(n.left, grade, id);
+        else n.right = remove(n.right, grade, id);
+        return update(n);
+    }
+}
+
+// Thread-safe student store. Lookups and attendance go straight to the concurrent map. The grade ranking is
+// split into stripes by id, each with its own lock, so adds and removes of different students run in
+// parallel; an add or remove updates the map and its stripe under that stripe's write lock. Ranking queries
+// take every stripe's read lock (always in stripe order) and so see one consistent state.
+class StudentStore {
+    private static final int STRIPES = 16;
+
+    private final ConcurrentHashMap<Integer, Student> students = new ConcurrentHashMap<>();
+    private final GradeRanking[] rankings = new GradeRanking[STRIPES];
+    private final ReentrantReadWriteLock[] locks = new ReentrantReadWriteLock[STRIPES];
+
+    StudentStore() {
+        for (int i = 0; i < STRIPES; i++) {
+            rankings[i] = new GradeRanking();
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    // Adds or replaces a student
+    void put(Student student) {
+        int stripe = stripe(student.id);
+        locks[stripe].writeLock().lock();
+        try {
+            putLocked(student, rankings[stripe]);
+        } finally {
+            locks[stripe].writeLock().unlock();
+        }
+    }
+
+    // Bulk load: each stripe's lock is taken once for its share of the batch
+    void putAll(List<Student> batch) {
+        List<List<Student>> byStripe = new ArrayList<>(STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            byStripe.add(new ArrayList<>());
+        }
+        for (Student student : batch) {
+            byStripe.get(stripe(student.id)).add(student);
+        }
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            if (byStripe.get(stripe).isEmpty()) {
+                continue;
+            }
+            locks[stripe].writeLock().lock();
+            try {
+                for (Student student : byStripe.get(stripe)) {
+                    putLocked(student, rankings[stripe]);
+                }
+            } finally {
+                locks[stripe].writeLock().unlock();
+            }
+        }
+    }
+
+    private void putLocked(Student student, GradeRanking ranking) {
+        Student previous = students.put(student.id, student);
+        if (previous != null) {
+            ranking.remove(previous.grade, previous.id);
+        }
+        ranking.add(student.grade, student.id);
+    }
+
+    Student get(int id) {
+        return students.get(id);
+    }
+
+    boolean markPresent(int id) {
+        return students.computeIfPresent(id, (k, s) -> {
+            s.attendance = true;
+            return s;
+        }) != null;
+    }
+
+    Student remove(int id) {
+        int stripe = stripe(id);
+        locks[stripe].writeLock().lock();
+        try {
+            Student removed = students.remove(id);
+            if (removed != null) {
+                rankings[stripe].remove(removed.grade, id);
+            }
+            return removed;
+        } finally {
+            locks[stripe].writeLock().unlock();
+        }
+    }
+
+    boolean isEmpty() {
+        return students.isEmpty();
+    }
+
+    int exportTo(Path file) throws IOException {
+        int written = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             StudentRecordWriter writer = new StudentRecordWriter(channel)) {
+            for (Student s : students.values()) {
+                writer.write(s);
+                written++;
+            }
+        }
+        return written;
+    }
+
+    int importFrom(Path file) throws IOException {
+        int read = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            StudentRecordReader reader = new StudentRecordReader(channel);
+            for (List<Student> batch; (batch = reader.nextBlock()) != null; ) {
+                putAll(batch);
+                read += batch.size();
+            }
+        }
+        return read;
+    }
+
+    Collection<Student> all() {
+        return students.values();
+    }
+
+    int size() {
+        lockAllForRead();
+        try {
+            int size = 0;
+            for (GradeRanking ranking : rankings) {
+                size += ranking.size();
+            }
+            return size;
+        } finally {
+            unlockAllForRead();
+        }
+    }
+
+    // Rank, class size and percentile read together under one snapshot; null if the student is unknown
+    StudentRank rankOf(int id) {
+        lockAllForRead();
+        try {
+            Student s = students.get(id);
+            if (s == null) {
+                return null;
+            }
+            int before = 0, size = 0;
+            for (GradeRanking ranking : rankings) {
+                before += ranking.countBefore(s.grade, id);
+                size += ranking.size();
+            }
+            int rank = before + 1;
+            return new StudentRank(rank, size, 100.0 * (size - rank) / size);
+        } finally {
+            unlockAllForRead();
+        }
+    }
+
+    // Best k students, merged from each stripe's own top k
+    List<Student> top(int k) {
+        lockAllForRead();
+        try {
+            List<Student> candidates = new ArrayList<>();
+            for (GradeRanking ranking : rankings) {
+                for (int id : ranking.top(k)) {
+                    candidates.add(students.get(id));
+                }
+            }
+            candidates.sort((a, b) -> {
+                int c = Double.compare(b.grade, a.grade);
+                return c != 0 ? c : Integer.compare(a.id, b.id);
+            });
+            return new ArrayList<>(candidates.subList(0, Math.min(k, candidates.size())));
+        } finally {
+            unlockAllForRead();
+        }
+    }
+
+    private static int stripe(int id) {
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private void lockAllForRead() {
+        for (ReentrantReadWriteLock lock : locks) {
+            lock.readLock().lock();
+        }
+    }
+
+    private void unlockAllForRead() {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            locks[i].readLock().unlock();
+        }
+    }
+}
+
+class StudentRank {
+    final int rank;
+    final int size;
+    final double percentile;
+
+    StudentRank(int rank, int size, double percentile) {
+        this.rank = rank;
+        this.size = size;
+        this.percentile = percentile;
+    }
+}
+
+// Binary student records, written in checksummed blocks after a "STUD" magic and version byte:
+//   block   = record count (int, 0 ends the stream), payload length (int), payload, CRC32 of payload (int)
+//   payload = per record: zigzag varint id, varint name length, UTF-8 name, varint age, grade (double),
+//             then the block's attendance flags packed 8 per byte
+final class StudentRecords {
+    static final int MAGIC = 0x53545544; // "STUD"
+    static final byte VERSION = 1;
+    static final int BLOCK_RECORDS = 4096;
+    // Longest name a record may carry, and the largest payload a full block can then need
+    static final int MAX_NAME_BYTES = 1 << 16;
+    static final int MAX_RECORD_BYTES = 5 + 5 + MAX_NAME_BYTES + 5 + 8;
+
+    private StudentRecords() {
+    }
+
+    static void writeVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static int readVarint(ByteBuffer in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Truncated student records");
+            }
+        }
+        buffer.flip();
+    }
+}
+
+class StudentRecordWriter implements AutoCloseable {
+    private final WritableByteChannel channel;
+    private final Student[] pending = new Student[StudentRecords.BLOCK_RECORDS];
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer block = ByteBuffer.allocateDirect(1 << 20);
+    private int count;
+
+    StudentRecordWriter(WritableByteChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(5).putInt(StudentRecords.MAGIC).put(StudentRecords.VERSION);
+        header.flip();
+        write(header);
+    }
+
+    void write(Student student) throws IOException {
+        pending[count++] = student;
+        if (count == pending.length) {
+            flushBlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushBlock();
+        ByteBuffer end = ByteBuffer.allocate(4).putInt(0);
+        end.flip();
+        write(end);
+    }
+
+    private void flushBlock() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        block.clear();
+        block.position(8);
+        for (int i = 0; i < count; i++) {
+            Student s = pending[i];
+            byte[] name = s.name.getBytes(StandardCharsets.UTF_8);
+            if (name.length > StudentRecords.MAX_NAME_BYTES) {
+                throw new IOException("Name of student " + s.id + " is longer than " + StudentRecords.MAX_NAME_BYTES + " bytes");
+            }
+            ensureRoom(5 + 5 + name.length + 5 + 8 + 4 + (count + 7) / 8);
+            StudentRecords.writeVarint(block, (s.id << 1) ^ (s.id >> 31));
+            StudentRecords.writeVarint(block, name.length);
+            block.put(name);
+            StudentRecords.writeVarint(block, s.age);
+            block.putDouble(s.grade);
+        }
+        for (int i = 0; i < count; i += 8) {
+            int flags = 0;
+            for (int j = i; j < Math.min(count, i + 8); j++) {
+                if (pending[j].attendance) flags |= 1 << (j - i);
+            }
+            block.put((byte) flags);
+        }
+        int payloadLength = block.position() - 8;
+        block.putInt(0, count).putInt(4, payloadLength);
+        crc.reset();
+        crc.update(block.duplicate().position(8).limit(8 + payloadLength));
+        block.putInt((int) crc.getValue());
+        block.flip();
+        write(block);
+        Arrays.fill(pending, 0, count, null);
+        count = 0;
+    }
+
+    private void ensureRoom(int bytes) {
+        if (block.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(block.capacity() * 2, block.position() + bytes));
+            block.flip();
+            larger.put(block);
+            block = larger;
+        }
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
+
+class StudentRecordReader {
+    private final ReadableByteChannel channel;
+    private final ByteBuffer header = ByteBuffer.allocate(8);
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer block = ByteBuffer.allocateDirect(1 << 20);
+
+    StudentRecordReader(ReadableByteChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer magic = ByteBuffer.allocate(5);
+        StudentRecords.readFully(channel, magic);
+        if (magic.getInt() != StudentRecords.MAGIC || magic.get() != StudentRecords.VERSION) {
+            throw new IOException("Not a student record file");
+        }
+    }
+
+    // Next block of students, or null once the end marker is reached
+    List<Student> nextBlock() throws IOException {
+        header.clear().limit(4);
+        StudentRecords.readFully(channel, header);
+        int count = header.getInt();
+        if (count == 0) {
+            return null;
+        }
+        header.clear().limit(4);
+        StudentRecords.readFully(channel, header);
+        int payloadLength = header.getInt();
+        // The header is not covered by the CRC, so bound it before sizing any buffer from it
+        if (count < 0 || count > StudentRecords.BLOCK_RECORDS || payloadLength < (count + 7) / 8
+                || payloadLength > count * StudentRecords.MAX_RECORD_BYTES + (count + 7) / 8) {
+            throw new IOException("Corrupt block header");
+        }
+        if (block.capacity() < payloadLength + 4) {
+            block = ByteBuffer.allocateDirect(payloadLength + 4);
+        }
+        block.clear().limit(payloadLength + 4);
+        StudentRecords.readFully(channel, block);
+        crc.reset();
+        crc.update(block.duplicate().limit(payloadLength));
+        if ((int) crc.getValue() != block.getInt(payloadLength)) {
+            throw new IOException("Checksum mismatch in student record block");
+        }
+        int flags = payloadLength - (count + 7) / 8;
+        List<Student> students = new ArrayList<>(count);
+        byte[] name = new byte[64];
+        try {
+            for (int i = 0; i < count; i++) {
+                int zigzag = StudentRecords.readVarint(block);
+                int id = (zigzag >>> 1) ^ -(zigzag & 1);
+                int length = StudentRecords.readVarint(block);
+                if (length < 0 || length > StudentRecords.MAX_NAME_BYTES) {
+                    throw new IOException("Corrupt student name length");
+                }
+                if (name.length < length) name = new byte[Math.max(length, name.length * 2)];
+                block.get(name, 0, length);
+                int age = StudentRecords.readVarint(block);
+                Student student = new Student(id, new String(name, 0, length, StandardCharsets.UTF_8), age, block.getDouble());
+                student.attendance = (block.get(flags + i / 8) & (1 << (i % 8))) != 0;
+                students.add(student);
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt student record block", e);
+        }
+        return students;
+    }
+}
+
+// Line protocol, one command per line, one reply line per command:
+//   ADD <id> <age> <grade> <name...>   -> OK
+//   GET <id>                           -> <id> <age> <grade> <present> <name...> | NOT_FOUND
+//   ATTEND <id> / REMOVE <id>          -> OK | NOT_FOUND
+//   RANK <id>                          -> <rank> <size> <percentile> | NOT_FOUND
+//   TOP <k>                            -> space-separated ids, best first
+//   QUIT
+// Replies are flushed only once the client's pipelined commands are drained.
+class StudentServer implements AutoCloseable {
+    private final StudentStore store;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = newPerTaskExecutor();
+    private final Thread acceptor;
+
+    StudentServer(StudentStore store, int port) throws IOException {
+        this.store = store;
+        this.serverSocket = new ServerSocket(port);
+        this.acceptor = new Thread(this::acceptLoop, "student-server-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.execute(() -> serve(socket));
+            } catch (SocketException closed) {
+                return;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.equalsIgnoreCase("QUIT")) {
+                    break;
+                }
+                out.write(handle(line));
+                out.newLine();
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            // Client went away
+        }
+    }
+
+    String handle(String line) {
+        String[] parts = line.trim().split(" ", 5);
+        try {
+            switch (parts[0].toUpperCase()) {
+                case "ADD":
+                    store.put(new Student(Integer.parseInt(parts[1]), parts[4], Integer.parseInt(parts[2]), Double.parseDouble(parts[3])));
+                    return "OK";
+                case "GET": {
+                    Student s = store.get(Integer.parseInt(parts[1]));
+                    return s == null ? "NOT_FOUND" : s.id + " " + s.age + " " + s.grade + " " + s.attendance + " " + s.name;
+                }
+                case "ATTEND":
+                    return store.markPresent(Integer.parseInt(parts[1])) ? "OK" : "NOT_FOUND";
+                case "REMOVE":
+                    return store.remove(Integer.parseInt(parts[1])) != null ? "OK" : "NOT_FOUND";
+                case "RANK": {
+                    int id = Integer.parseInt(parts[1]);
+                    StudentRank rank = store.rankOf(id);
+                    return rank == null ? "NOT_FOUND" : rank.rank + " " + rank.size + " " + String.format("%.1f", rank.percentile);
+                }
+                case "TOP": {
+                    StringJoiner ids = new StringJoiner(" ");
+                    for (Student s : store.top(Integer.parseInt(parts[1]))) {
+                        ids.add(String.valueOf(s.id));
+                    }
+                    return ids.toString();
+                }
+                default:
+                    return "ERR unknown command";
+            }
+        } catch (RuntimeException e) {
+            return "ERR " + e.getClass().getSimpleName();
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() on JDK 21+, a cached platform pool otherwise
+    private static ExecutorService newPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "student-connection");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
+
+// Throughput check: java StudentLoadTest [seconds]
+// Runs 1..2x cores client connections against an in-process server and prints requests per second.
+class StudentLoadTest {
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int students = 100_000;
+        StudentStore store = new StudentStore();
+        Random random = new Random(42);
+        for (int id = 1; id <= students; id++) {
+            store.put(new Student(id, "Student " + id, 18 + random.nextInt(8), random.nextInt(1000) / 10.0));
+        }
+        try (StudentServer server = new StudentServer(store, 0)) {
+            int cores = Runtime.getRuntime().availableProcessors();
+            System.out.println("cores: " + cores);
+            for (int clients = 1; clients <= Math.max(2, cores * 2); clients *= 2) {
+                AtomicLong requests = new AtomicLong();
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+                ExecutorService pool = Executors.newFixedThreadPool(clients);
+                List<Future<?>> running = new ArrayList<>();
+                for (int c = 0; c < clients; c++) {
+                    running.add(pool.submit(() -> client(server.port(), students, deadline, requests)));
+                }
+                for (Future<?> f : running) {
+                    f.get();
+                }
+                pool.shutdown();
+                System.out.printf("%3d clients: %,10.0f req/s%n", clients, requests.get() / (double) seconds);
+            }
+        }
+    }
+
+    // Mostly reads and attendance, with some ranking queries and re-grades
+    private static Void client(int port, int students, long deadline, AtomicLong requests) throws IOException {
+        try (Socket socket = new Socket("localhost", port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long done = 0;
+            while (System.nanoTime() < deadline) {
+                int id = 1 + random.nextInt(students);
+                int op = random.nextInt(100);
+                if (op < 50) out.write("GET " + id);
+                else if (op < 80) out.write("ATTEND " + id);
+                else if (op < 90) out.write("RANK " + id);
+                else out.write("ADD " + id + " 20 " + random.nextInt(1000) / 10.0 + " Student " + id);
+                out.newLine();
+                out.flush();
+                if (in.readLine() == null) break;
+                done++;
+            }
+            out.write("QUIT");
+            out.newLine();
+            out.flush();
+            requests.addAndGet(done);
+        }
+        return null;
+    }
+}
+
 public class StudentManagementSystem {
-    private static Map<Integer, Student> students = new HashMap<>();
+    private static StudentStore students = new StudentStore();
     private static Scanner scanner = new Scanner(System.in);
 
     // Add Student
@@ -35,7 +735,7 @@ public class StudentManagementSystem {
         System.out.print("Enter Grade: ");
         double grade = scanner.nextDouble();
 
-        students.put(id, new Student(id, name, age, grade));
+        students.put(new Student(id, name, age, grade));
         System.out.println("Student added successfully!\n");
     }
 
@@ -45,7 +745,7 @@ public class StudentManagementSystem {
             System.out.println("No students to display.\n");
             return;
         }
-        for (Student s : students.values()) {
+        for (Student s : students.all()) {
             System.out.println("ID: " + s.id + ", Name: " + s.name + ", Age: " + s.age + ", Grade: " + s.grade + ", Attendance: " + (s.attendance ? "Present" : "Absent"));
         }
         System.out.println();
@@ -55,8 +755,7 @@ public class StudentManagementSystem {
     public static void markAttendance() {
         System.out.print("Enter Student ID to mark attendance: ");
         int id = scanner.nextInt();
-        if (students.containsKey(id)) {
-            students.get(id).attendance = true;
+        if (students.markPresent(id)) {
             System.out.println("Attendance marked successfully!\n");
         } else {
             System.out.println("Student not found.\n");
@@ -67,22 +766,78 @@ public class StudentManagementSystem {
     public static void removeStudent() {
         System.out.print("Enter Student ID to remove: ");
         int id = scanner.nextInt();
-        if (students.containsKey(id)) {
-            students.remove(id);
+        if (students.remove(id) != null) {
             System.out.println("Student removed successfully!\n");
         } else {
             System.out.println("Student not found.\n");
         }
     }
 
-    public static void main(String[] args) {
+    // Top Students
+    public static void topStudents() {
+        System.out.print("How many students: ");
+        int k = scanner.nextInt();
+        int rank = 1;
+        for (Student s : students.top(k)) {
+            System.out.println(rank++ + ". ID: " + s.id + ", Name: " + s.name + ", Grade: " + s.grade);
+        }
+        System.out.println();
+    }
+
+    // Student Rank
+    public static void studentRank() {
+        System.out.print("Enter Student ID: ");
+        int id = scanner.nextInt();
+        StudentRank rank = students.rankOf(id);
+        if (rank != null) {
+            System.out.printf("Rank %d of %d, ahead of %.1f%% of the class%n%n", rank.rank, rank.size, rank.percentile);
+        } else {
+            System.out.println("Student not found.\n");
+        }
+    }
+
+    // Export Students
+    public static void exportStudents() {
+        System.out.print("Export to file: ");
+        String file = scanner.next();
+        try {
+            System.out.println("Exported " + students.exportTo(Paths.get(file)) + " students.\n");
+        } catch (IOException e) {
+            System.out.println("Export failed: " + e.getMessage() + "\n");
+        }
+    }
+
+    // Import Students
+    public static void importStudents() {
+        System.out.print("Import from file: ");
+        String file = scanner.next();
+        try {
+            System.out.println("Imported " + students.importFrom(Paths.get(file)) + " students.\n");
+        } catch (IOException e) {
+            System.out.println("Import failed: " + e.getMessage() + "\n");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        // "serve [port]" runs the multi-client server instead of the console menu
+        if (args.length > 0 && args[0].equals("serve")) {
+            StudentServer server = new StudentServer(students, args.length > 1 ? Integer.parseInt(args[1]) : 7070);
+            System.out.println("Student server listening on port " + server.port() + ", press Enter to stop");
+            scanner.nextLine();
+            server.close();
+            return;
+        }
         while (true) {
             System.out.println("--- Student Management System ---");
             System.out.println("1. Add Student");
             System.out.println("2. Display Students");
             System.out.println("3. Mark Attendance");
             System.out.println("4. Remove Student");
-            System.out.println("5. Exit");
+            System.out.println("5. Top Students");
+            System.out.println("6. Student Rank");
+            System.out.println("7. Export Students");
+            System.out.println("8. Import Students");
+            System.out.println("9. Exit");
             System.out.print("Choose an option: ");
 
             int choice = scanner.nextInt();
@@ -101,6 +856,18 @@ public class StudentManagementSystem {
                     removeStudent();
                     break;
                 case 5:
+                    topStudents();
+                    break;
+                case 6:
+                    studentRank();
+                    break;
+                case 7:
+                    exportStudents();
+                    break;
+                case 8:
+                    importStudents();
+                    break;
+                case 9:
                     System.out.println("Exiting... Goodbye!");
                     System.exit(0);
                 default: